@@ -2,20 +2,35 @@ package com.example.demo.admin;
 
 import com.example.demo.admin.dto.MemberDto;
 import com.example.demo.admin.model.MemberParam;
+import com.example.demo.components.BoundedPasswordEncoder;
+import com.example.demo.components.LoginThrottle;
+import com.example.demo.components.MailOutboxWorker;
+import com.example.demo.components.MailTemplates;
+import com.example.demo.components.MemberTokens;
+import com.example.demo.components.MemberUserCache;
 import com.example.demo.member.service.MemberService;
 import com.example.demo.util.PageUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Controller
 public class AdminMemberController {
 
     private final MemberService memberService;
+    private final MemberUserCache memberUserCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
+    private final MailOutboxWorker mailOutboxWorker;
+    private final MailTemplates mailTemplates;
+    private final MemberTokens memberTokens;
 
     @GetMapping("/admin/member/list.do")
     public String list(Model model, MemberParam parameter) {
@@ -47,4 +62,20 @@ public class AdminMemberController {
 
         return "admin/member/detail";
     }
+
+    /*로그인 현황 (회원 정보 캐시 적중률, 비밀번호 해시 시간 분포, 시도 제한, 메일 대기열 등)*/
+    @ResponseBody
+    @GetMapping("/admin/member/stats.do")
+    public Map<String, Object> stats() {
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("userCache", memberUserCache.getStats());
+        stats.put("password", passwordEncoder.getStats());
+        stats.put("loginThrottle", loginThrottle.getStats());
+        stats.put("mail", mailOutboxWorker.getStats());
+        stats.put("mailTemplates", mailTemplates.getStats());
+        stats.put("tokens", memberTokens.getStats());
+
+        return stats;
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.demo.admin;
+
+import com.example.demo.components.DatalabCircuitBreaker;
+import com.example.demo.components.DatalabScheduler;
+import com.example.demo.components.TrendCache;
+import com.example.demo.components.TrendSingleFlight;
+import com.example.demo.components.TrendStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Controller
+public class AdminTrendController {
+
+    private final TrendCache trendCache;
+    private final TrendStore trendStore;
+    private final TrendSingleFlight trendSingleFlight;
+    private final DatalabScheduler datalabScheduler;
+    private final DatalabCircuitBreaker datalabCircuitBreaker;
+
+    /*데이터랩 조회 현황 (캐시/저장소 적중, 합쳐진 동시 요청 수, 남은 호출 한도, 차단기 상태 등)*/
+    @ResponseBody
+    @GetMapping("/admin/trend/stats.do")
+    public Map<String, Object> stats() {
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cache", trendCache.getStats());
+        stats.put("store", trendStore.getStats());
+        stats.put("singleFlight", trendSingleFlight.getStats());
+        stats.put("quota", datalabScheduler.getStats());
+        stats.put("circuitBreaker", datalabCircuitBreaker.getStats());
+
+        return stats;
+    }
+}
@@ -15,10 +15,6 @@ public class MemberDto  {
 
     boolean emailAuthYn;
     LocalDateTime emailAuthDt;
-    String emailAuthKey;
-
-    String resetPasswordKey;
-    LocalDateTime resetPasswordLimitDt;
 
     boolean adminYn;
 
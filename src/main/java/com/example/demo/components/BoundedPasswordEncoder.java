@@ -0,0 +1,206 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * BCrypt 해시/검증을 전용 스레드 풀에서 실행하는 PasswordEncoder.
+ * 로그인/가입이 몰려도 CPU 를 쓰는 스레드는 threads 개로 제한하고, 대기열(queue)이 가득 차거나
+ * maxWait 안에 끝나지 않으면 기다리지 않고 AuthenticationServiceException 으로 실패한다.
+ * strength 를 지정하지 않으면 시작할 때 이 서버에서 해시 한 번이 targetHashTime 정도 걸리는 cost 를 고른다.
+ * (이미 저장된 해시는 해시에 적힌 cost 로 검증하므로 cost 가 바뀌어도 그대로 로그인할 수 있다)
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    //BCryptPasswordEncoder 기본값보다 약하게는 고르지 않는다
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long maxWaitNanos;
+    private final ThreadPoolExecutor executor;
+
+    private final Histogram encodeTime = new Histogram();
+    private final Histogram matchesTime = new Histogram();
+    private final Histogram queueTime = new Histogram();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    public BoundedPasswordEncoder(MemberProperties properties) {
+        MemberProperties.Password config = properties.getPassword();
+        this.strength = config.getStrength() > 0
+                ? config.getStrength()
+                : calibrate(config.getTargetHashTime().toNanos());
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.maxWaitNanos = config.getMaxWait().toNanos();
+
+        int threads = config.getThreads() > 0
+                ? config.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueue()),
+                new CustomizableThreadFactory("password-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTime);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTime);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("rejectedCount", rejectedCount.get());
+        stats.put("timeoutCount", timeoutCount.get());
+        stats.put("encodeMillis", encodeTime.snapshot());
+        stats.put("matchesMillis", matchesTime.snapshot());
+        stats.put("queueMillis", queueTime.snapshot());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task, Histogram histogram) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueTime.record(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    histogram.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new AuthenticationServiceException("요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", e);
+        }
+
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCount.incrementAndGet();
+            throw new AuthenticationServiceException("요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("요청이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AuthenticationServiceException("비밀번호를 확인하지 못했습니다.", e.getCause());
+        }
+    }
+
+    /**
+     * MIN_STRENGTH 로 해시 시간을 재고, cost 가 1 오를 때마다 두 배가 되는 것으로 계산해서 targetNanos 를 넘지 않는 가장 큰 cost 를 고른다.
+     */
+    static int calibrate(long targetNanos) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        //첫 실행은 JIT 전이라 느리므로 버리고 나머지 중 가장 빠른 값을 쓴다
+        encoder.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return strengthFor(best, targetNanos);
+    }
+
+    static int strengthFor(long nanosAtMinStrength, long targetNanos) {
+        int strength = MIN_STRENGTH;
+        long estimated = Math.max(1, nanosAtMinStrength);
+        while (strength < MAX_STRENGTH && estimated * 2 <= targetNanos) {
+            estimated *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * 고정 구간(ms) 히스토그램. 구간 경계: 10, 25, 50, 100, 250, 500, 1000, 그 이상
+     */
+    static class Histogram {
+
+        private static final long[] BOUNDS_MILLIS = {10, 25, 50, 100, 250, 500, 1000};
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int index = 0;
+            while (index < BOUNDS_MILLIS.length && millis > BOUNDS_MILLIS[index]) {
+                index++;
+            }
+            buckets.incrementAndGet(index);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            long total = count.get();
+            snapshot.put("count", total);
+            snapshot.put("avg", total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.get() / total));
+            snapshot.put("max", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+                snapshot.put("le" + BOUNDS_MILLIS[i], buckets.get(i));
+            }
+            snapshot.put("gt" + BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1], buckets.get(BOUNDS_MILLIS.length));
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 데이터랩 API 차단기(circuit breaker).
+ * <ul>
+ *     <li>CLOSED : 최근 windowSize 건 중 실패(느린 호출 포함) 비율이 기준 이상이면 OPEN 으로 바꾼다.</li>
+ *     <li>OPEN : openDuration 동안 호출하지 않고 바로 실패시킨다. 장애가 난 API 에 요청이 쌓이지 않게 한다.</li>
+ *     <li>HALF_OPEN : halfOpenCalls 건만 시험으로 보내서 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN.</li>
+ * </ul>
+ */
+@Component
+public class DatalabCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Clock clock;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    //최근 호출 결과 (true = 실패). 순환 버퍼
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccess;
+
+    private long successTotal;
+    private long failureTotal;
+    private long slowTotal;
+    private long rejectedTotal;
+    private long openedTotal;
+
+    public DatalabCircuitBreaker(DatalabProperties properties, Clock clock) {
+        DatalabProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        this.clock = clock;
+        this.window = new boolean[config.getWindowSize()];
+        this.minimumCalls = Math.min(config.getMinimumCalls(), config.getWindowSize());
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallNanos = config.getSlowCallThreshold().toNanos();
+        this.openMillis = config.getOpenDuration().toMillis();
+        this.halfOpenCalls = config.getHalfOpenCalls();
+    }
+
+    /**
+     * 호출해도 되는지 확인한다. 차단 중이면 DatalabException 이 발생한다.
+     * 허락을 받은 호출은 끝난 뒤 onResult 나, 호출하지 못했으면 onIgnored 를 불러야 한다.
+     */
+    public void acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (clock.millis() - openedAt < openMillis) {
+                    rejectedTotal++;
+                    throw new DatalabException("데이터랩 API 오류가 계속되어 잠시 요청을 멈췄습니다.");
+                }
+                state = State.HALF_OPEN;
+                halfOpenInFlight = 0;
+                halfOpenSuccess = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    rejectedTotal++;
+                    throw new DatalabException("데이터랩 API 복구를 확인하는 중입니다. 잠시 후 다시 시도해주세요.");
+                }
+                halfOpenInFlight++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 호출 결과를 기록한다. failed 가 아니어도 slowCallThreshold 보다 오래 걸렸으면 실패로 센다.
+     */
+    public void onResult(long elapsedNanos, boolean failed) {
+        boolean slow = elapsedNanos >= slowCallNanos;
+        boolean bad = failed || slow;
+
+        lock.lock();
+        try {
+            if (bad) {
+                failureTotal++;
+            } else {
+                successTotal++;
+            }
+            if (slow) {
+                slowTotal++;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight > 0) {
+                    halfOpenInFlight--;
+                }
+                if (bad) {
+                    open();
+                } else if (++halfOpenSuccess >= halfOpenCalls) {
+                    close();
+                }
+                return;
+            }
+
+            if (state == State.OPEN) {
+                return;
+            }
+
+            record(bad);
+            if (windowCount >= minimumCalls && failureCount * 100 >= failureRateThreshold * windowCount) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 허락을 받았지만 호출하지 않은 경우 (호출 한도, 대기열 초과 등)
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+                halfOpenInFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("state", state.name());
+            stats.put("windowCalls", windowCount);
+            stats.put("windowFailures", failureCount);
+            stats.put("successCount", successTotal);
+            stats.put("failureCount", failureTotal);
+            stats.put("slowCount", slowTotal);
+            stats.put("rejectedCount", rejectedTotal);
+            stats.put("openedCount", openedTotal);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //이하 lock 을 잡은 상태에서 호출해야 한다
+
+    private void record(boolean bad) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                failureCount--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = bad;
+        if (bad) {
+            failureCount++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.millis();
+        openedTotal++;
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failureCount = 0;
+        halfOpenInFlight = 0;
+        halfOpenSuccess = 0;
+    }
+}
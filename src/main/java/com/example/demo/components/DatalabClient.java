@@ -0,0 +1,170 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 데이터랩 API 호출 전용 클라이언트.
+ * 하나의 HttpClient를 재사용해서 연결(TLS 세션 포함)을 풀링하고, 가능하면 HTTP/2로 통신한다.
+ * 요청마다 제한 시간을 두고, 동시 요청 수와 일일 호출 한도는 DatalabScheduler 로 관리한다.
+ * 장애가 계속되면 DatalabCircuitBreaker 가 호출을 잠시 막는다.
+ */
+@Component
+public class DatalabClient {
+
+    private final DatalabProperties properties;
+    private final URI uri;
+    private final HttpClient httpClient;
+    private final DatalabScheduler scheduler;
+    private final DatalabCircuitBreaker circuitBreaker;
+
+    public DatalabClient(DatalabProperties properties, DatalabScheduler scheduler, DatalabCircuitBreaker circuitBreaker) {
+        this.properties = properties;
+        this.uri = URI.create(properties.getUrl());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        this.scheduler = scheduler;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String post(String requestBody) {
+        return post(requestBody, properties.getRequestTimeout(), DatalabClient::readString);
+    }
+
+    public String post(String requestBody, Duration timeout) {
+        return post(requestBody, timeout, DatalabClient::readString);
+    }
+
+    public <T> T post(String requestBody, BodyReader<T> bodyReader) {
+        return post(requestBody, properties.getRequestTimeout(), bodyReader);
+    }
+
+    public <T> T post(String requestBody, Duration timeout, BodyReader<T> bodyReader) {
+        return post(requestBody, timeout, DatalabScheduler.Priority.INTERACTIVE, bodyReader);
+    }
+
+    /**
+     * requestBody를 POST 하고 응답 본문 스트림을 bodyReader 로 넘겨서 읽는다. (gzip 이면 풀어서 넘긴다)
+     * 200 이 아닌 응답은 본문(errorMessage)을 담아 DatalabException 으로 던진다.
+     * timeout 은 응답 본문을 다 읽을 때까지의 전체 시간이다. (스케줄러에서 자리를 기다리는 시간은 포함하지 않는다)
+     * 연결 실패, 시간 초과, 5xx/429 응답과 느린 호출은 차단기에 실패로 기록하고, 그 밖의 4xx 는 요청 오류이므로 기록하지 않는다.
+     */
+    public <T> T post(String requestBody, Duration timeout, DatalabScheduler.Priority priority, BodyReader<T> bodyReader) {
+        circuitBreaker.acquirePermission();
+        try {
+            scheduler.acquire(priority);
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        boolean healthy = false;
+        try {
+            long deadline = start + timeout.toNanos();
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("X-Naver-Client-Id", properties.getClientId())
+                    .header("X-Naver-Client-Secret", properties.getClientSecret())
+                    .header("Content-Type", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
+                    .build();
+
+            CompletableFuture<HttpResponse<InputStream>> future = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+            HttpResponse<InputStream> response;
+            try {
+                response = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new DatalabException("API 응답 시간이 초과되었습니다. (" + timeout.toMillis() + "ms)", e);
+            } catch (InterruptedException e) {
+                //호출한 쪽에서 취소한 경우 진행 중인 요청도 함께 취소한다
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new DatalabException("API 요청이 중단되었습니다.", e);
+            }
+
+            int status = response.statusCode();
+            if (status != 200) {
+                healthy = status < 500 && status != 429;
+            }
+            T result = readBody(response, deadline, bodyReader);
+            healthy = true;
+            return result;
+        } catch (ExecutionException e) {
+            throw new DatalabException("API 요청과 응답 실패", e.getCause());
+        } finally {
+            scheduler.release();
+            circuitBreaker.onResult(System.nanoTime() - start, !healthy);
+        }
+    }
+
+    public int getAvailablePermits() {
+        return scheduler.getAvailablePermits();
+    }
+
+    /**
+     * HttpRequest.timeout 은 응답 헤더까지만 보므로, 남은 시간이 지나면 본문 스트림을 닫아서 읽기를 끝낸다.
+     */
+    private <T> T readBody(HttpResponse<InputStream> response, long deadline, BodyReader<T> bodyReader) {
+        InputStream raw = response.body();
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        CompletableFuture<Void> watchdog = CompletableFuture.runAsync(() -> closeQuietly(raw),
+                CompletableFuture.delayedExecutor(remaining, TimeUnit.NANOSECONDS));
+
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map("gzip"::equalsIgnoreCase)
+                .orElse(false);
+
+        try (InputStream body = gzip ? new GZIPInputStream(raw) : raw) {
+            if (response.statusCode() != 200) {
+                throw new DatalabException("API 응답 오류(" + response.statusCode() + "): " + readString(body));
+            }
+            return bodyReader.read(body);
+        } catch (IOException e) {
+            if (watchdog.isDone()) {
+                throw new DatalabException("API 응답 시간이 초과되었습니다.", e);
+            }
+            throw new DatalabException("API 응답을 읽는데 실패했습니다.", e);
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private static String readString(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 응답 본문을 읽는 방법 (스트림은 DatalabClient 가 닫는다)
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
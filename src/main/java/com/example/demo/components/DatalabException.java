@@ -0,0 +1,14 @@
+package com.example.demo.components;
+
+/**
+ * 데이터랩 API 호출 실패 (연결 실패, 시간 초과, 동시 요청 한도 초과 등)
+ */
+public class DatalabException extends RuntimeException {
+    public DatalabException(String error) {
+        super(error);
+    }
+
+    public DatalabException(String error, Throwable cause) {
+        super(error, cause);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.components;
+
+import com.example.demo.member.dto.TrendSeries;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 데이터랩 응답을 스트림에서 바로 읽어 검색어별 int[](epochDay) / double[](ratio) 로 만든다.
+ * 응답 전체를 문자열이나 JSONObject 트리로 만들지 않고, 데이터 한 점마다 객체를 만들지 않는다.
+ * <pre>
+ * {"startDate":..., "endDate":..., "timeUnit":...,
+ *  "results":[{"title":..., "keywords":[...], "data":[{"period":"2024-01-01","ratio":12.3}, ...]}, ...]}
+ * </pre>
+ */
+public class DatalabResponseParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private DatalabResponseParser() {
+    }
+
+    /**
+     * results 는 요청한 keywordGroups 순서대로 오므로 keywords 의 같은 위치 검색어 결과로 본다.
+     * results 가 없으면 errorMessage 를 담아 DatalabException 을 던진다.
+     */
+    public static List<TrendSeries> parse(InputStream body, List<String> keywords) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DatalabException("API 응답 형식이 올바르지 않습니다.");
+            }
+
+            List<TrendSeries> result = null;
+            String errorMessage = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("results".equals(field)) {
+                    result = readResults(parser, keywords);
+                } else if ("errorMessage".equals(field)) {
+                    errorMessage = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (result == null) {
+                throw new DatalabException("API 응답 오류: " + errorMessage);
+            }
+            return result;
+        }
+    }
+
+    private static List<TrendSeries> readResults(JsonParser parser, List<String> keywords) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new DatalabException("API 응답 형식이 올바르지 않습니다.");
+        }
+
+        List<TrendSeries> result = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            TrendSeries trendSeries = readResult(parser);
+            if (result.size() < keywords.size()) {
+                trendSeries.setKeyword(keywords.get(result.size()));
+                result.add(trendSeries);
+            }
+        }
+
+        //결과가 모자라면 빈 결과로 채운다
+        while (result.size() < keywords.size()) {
+            result.add(TrendSeries.builder()
+                    .keyword(keywords.get(result.size()))
+                    .build());
+        }
+        return result;
+    }
+
+    private static TrendSeries readResult(JsonParser parser) throws IOException {
+        TrendSeries trendSeries = new TrendSeries();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("data".equals(field)) {
+                readData(parser, trendSeries);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return trendSeries;
+    }
+
+    private static void readData(JsonParser parser, TrendSeries trendSeries) throws IOException {
+        int[] period = new int[64];
+        double[] ratio = new double[64];
+        int size = 0;
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int day = Integer.MIN_VALUE;
+            double value = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("period".equals(field)) {
+                    day = epochDay(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else if ("ratio".equals(field)) {
+                    value = token == JsonToken.VALUE_STRING ? Double.parseDouble(parser.getText()) : parser.getDoubleValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (day == Integer.MIN_VALUE) {
+                continue;
+            }
+            if (size == period.length) {
+                period = Arrays.copyOf(period, size * 2);
+                ratio = Arrays.copyOf(ratio, size * 2);
+            }
+            period[size] = day;
+            ratio[size] = value;
+            size++;
+        }
+
+        trendSeries.setPeriod(Arrays.copyOf(period, size));
+        trendSeries.setRatio(Arrays.copyOf(ratio, size));
+    }
+
+    /**
+     * "yyyy-MM-dd" 를 LocalDate 를 만들지 않고 epochDay 로 바꾼다.
+     */
+    static int epochDay(char[] text, int offset, int length) {
+        if (length != 10 || text[offset + 4] != '-' || text[offset + 7] != '-') {
+            throw new DatalabException("API 응답의 기간 형식이 올바르지 않습니다. : " + new String(text, offset, length));
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        return epochDay(year, month, day);
+    }
+
+    static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = text[offset + i];
+            if (c < '0' || c > '9') {
+                throw new DatalabException("API 응답의 기간 형식이 올바르지 않습니다. : " + new String(text, offset, count));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 데이터랩 API 호출 앞단의 스케줄러.
+ * <ul>
+ *     <li>일일 호출 한도 : 하루 한도만큼의 토큰을 두고, 한도가 초기화되는 자정(quota.zone 기준)에 다시 채운다.
+ *     토큰이 없으면 기다려도 소용없으므로 바로 실패한다.</li>
+ *     <li>동시 요청 수 : maxInFlight 개의 자리를 두고, 자리가 없으면 대기열에서 acquireTimeout 동안 기다린다.
+ *     대기열은 화면 검색(INTERACTIVE)이 백그라운드 갱신(BACKGROUND)보다 먼저이고, 가득 차면 바로 실패한다.</li>
+ *     <li>백그라운드 요청은 backgroundReserve 만큼의 토큰을 남겨 두어, 한도가 얼마 남지 않았을 때 화면 검색이 쓸 수 있게 한다.</li>
+ * </ul>
+ * BACKGROUND 는 캐시의 지난 값(stale)을 보여줄 수 있을 때 새 값을 다시 받는 요청(MemberServiceImpl.lookupTrend)에 쓴다.
+ * 지난 값이 없는 검색은 INTERACTIVE 로 요청한다.
+ * 날짜는 주입받은 Clock 으로 계산하므로 테스트에서 시간을 옮겨 가며 확인할 수 있다.
+ */
+@Component
+public class DatalabScheduler {
+
+    public enum Priority {
+        INTERACTIVE, BACKGROUND
+    }
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private final long dailyLimit;
+    private final long backgroundReserve;
+    private final int maxInFlight;
+    private final int maxQueue;
+    private final Duration acquireTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing((Waiter waiter) -> waiter.priority).thenComparingLong(waiter -> waiter.sequence));
+    private long sequence;
+    private LocalDate currentDay;
+    private long tokens;
+    private int inFlight;
+
+    private long grantedCount;
+    private long backgroundGrantedCount;
+    private long queueFullCount;
+    private long quotaExhaustedCount;
+    private long timeoutCount;
+
+    public DatalabScheduler(DatalabProperties properties, Clock clock) {
+        this.clock = clock;
+        this.zone = ZoneId.of(properties.getQuota().getZone());
+        this.dailyLimit = properties.getQuota().getDailyLimit();
+        this.backgroundReserve = properties.getQuota().getBackgroundReserve();
+        this.maxInFlight = properties.getMaxInFlight();
+        this.maxQueue = properties.getQuota().getMaxQueue();
+        this.acquireTimeout = properties.getAcquireTimeout();
+    }
+
+    /**
+     * 호출할 자리와 토큰을 하나씩 받는다. 받은 뒤에는 반드시 release 해야 한다.
+     * 한도가 없거나, 대기열이 가득 찼거나, acquireTimeout 안에 자리가 나지 않으면 DatalabException 이 발생한다.
+     */
+    public void acquire(Priority priority) {
+        lock.lock();
+        try {
+            refill();
+            if (!hasToken(priority)) {
+                quotaExhaustedCount++;
+                throw new DatalabException(quotaMessage(priority));
+            }
+
+            if (inFlight < maxInFlight && queue.isEmpty()) {
+                grant(priority);
+                return;
+            }
+
+            if (queue.size() >= maxQueue) {
+                queueFullCount++;
+                throw new DatalabException("API 요청 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요.");
+            }
+
+            Waiter waiter = new Waiter(priority, sequence++, lock.newCondition());
+            queue.add(waiter);
+            await(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getAvailablePermits() {
+        lock.lock();
+        try {
+            return maxInFlight - inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRemainingQuota() {
+        lock.lock();
+        try {
+            refill();
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            refill();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("day", currentDay.toString());
+            stats.put("dailyLimit", dailyLimit);
+            stats.put("remaining", tokens);
+            stats.put("backgroundReserve", backgroundReserve);
+            stats.put("inFlight", inFlight);
+            stats.put("maxInFlight", maxInFlight);
+            stats.put("queued", queue.size());
+            stats.put("maxQueue", maxQueue);
+            stats.put("grantedCount", grantedCount);
+            stats.put("backgroundGrantedCount", backgroundGrantedCount);
+            stats.put("queueFullCount", queueFullCount);
+            stats.put("quotaExhaustedCount", quotaExhaustedCount);
+            stats.put("timeoutCount", timeoutCount);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //이하 lock 을 잡은 상태에서 호출해야 한다
+
+    private void await(Waiter waiter) {
+        long nanos = acquireTimeout.toNanos();
+        try {
+            while (!waiter.granted && waiter.failure == null) {
+                if (nanos <= 0) {
+                    queue.remove(waiter);
+                    timeoutCount++;
+                    throw new DatalabException("동시 API 요청 수가 한도(" + maxInFlight + ")를 초과했습니다.");
+                }
+                nanos = waiter.condition.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            if (waiter.granted) {
+                //자리를 받은 뒤에 중단되었으면 돌려준다
+                inFlight--;
+                dispatch();
+            } else {
+                queue.remove(waiter);
+            }
+            Thread.currentThread().interrupt();
+            throw new DatalabException("API 요청이 중단되었습니다.", e);
+        }
+
+        if (waiter.failure != null) {
+            throw new DatalabException(waiter.failure);
+        }
+    }
+
+    /**
+     * 빈 자리만큼 대기열 앞에서부터 넘겨준다. 그 사이 한도가 다 떨어졌으면 기다리던 요청을 바로 실패시킨다.
+     */
+    private void dispatch() {
+        refill();
+        while (inFlight < maxInFlight && !queue.isEmpty()) {
+            Waiter waiter = queue.poll();
+            if (!hasToken(waiter.priority)) {
+                quotaExhaustedCount++;
+                waiter.failure = quotaMessage(waiter.priority);
+            } else {
+                grant(waiter.priority);
+                waiter.granted = true;
+            }
+            waiter.condition.signal();
+        }
+    }
+
+    private void grant(Priority priority) {
+        inFlight++;
+        tokens--;
+        grantedCount++;
+        if (priority == Priority.BACKGROUND) {
+            backgroundGrantedCount++;
+        }
+    }
+
+    private boolean hasToken(Priority priority) {
+        return priority == Priority.INTERACTIVE ? tokens > 0 : tokens > backgroundReserve;
+    }
+
+    private void refill() {
+        LocalDate today = LocalDate.ofInstant(clock.instant(), zone);
+        if (!today.equals(currentDay)) {
+            currentDay = today;
+            tokens = dailyLimit;
+        }
+    }
+
+    private String quotaMessage(Priority priority) {
+        if (priority == Priority.BACKGROUND && tokens > 0) {
+            return "남은 API 호출 한도(" + tokens + ")는 검색 요청용으로 남겨둡니다.";
+        }
+        return "오늘 API 호출 한도(" + dailyLimit + ")를 모두 사용했습니다. 자정 이후 다시 시도해주세요.";
+    }
+
+    private static class Waiter {
+        private final Priority priority;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+        private String failure;
+
+        private Waiter(Priority priority, long sequence, Condition condition) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.components;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 회원별 즐겨찾기 URL 메모리 캐시.
+ * 검색 화면을 열 때마다 DB 에서 읽지 않도록 회원 아이디를 키로 담아 두고, 즐겨찾기를 바꾸면 evict 로 지운다.
+ * 회원 수가 maxEntries 를 넘으면 가장 오래 사용되지 않은 회원부터 제거한다(LRU).
+ * 서버가 여럿이면 evict 는 즐겨찾기를 바꾼 서버에서만 불리므로, 다른 서버는 담은 지 ttl 이 지나면 DB 에서 다시 읽는다.
+ */
+@Component
+public class FavoriteCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    //DB 에서 읽고 있는 회원별 표시. 읽는 도중에 그 회원이 evict 되면 표시가 지워지고, 읽은 값을 담지 않는다
+    private final Map<String, Object> loading = new HashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public FavoriteCache(Clock clock) {
+        this(clock, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    FavoriteCache(Clock clock, int maxEntries, long ttlMillis) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 담긴 값이 없으면 loader 로 읽어서 담는다. (loader 는 lock 밖에서 호출한다)
+     */
+    public List<String> get(String userId, Function<String, List<String>> loader) {
+        Object token = new Object();
+        lock.lock();
+        try {
+            Entry cached = entries.get(userId);
+            if (cached != null && cached.expiresAt > clock.millis()) {
+                hitCount.incrementAndGet();
+                return cached.urls;
+            }
+            missCount.incrementAndGet();
+            loading.put(userId, token);
+        } finally {
+            lock.unlock();
+        }
+
+        List<String> loaded = List.copyOf(loader.apply(userId));
+
+        lock.lock();
+        try {
+            if (loading.remove(userId, token)) {
+                entries.put(userId, new Entry(loaded, clock.millis() + ttlMillis));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    /**
+     * 즐겨찾기를 저장한 뒤에 호출한다.
+     */
+    public void evict(String userId) {
+        lock.lock();
+        try {
+            entries.remove(userId);
+            loading.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("entries", entries.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("hitCount", hitCount.get());
+        stats.put("missCount", missCount.get());
+        return stats;
+    }
+
+    private static class Entry {
+        private final List<String> urls;
+        private final long expiresAt;
+
+        private Entry(List<String> urls, long expiresAt) {
+            this.urls = urls;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 로그인 실패 수 제한.
+ * 아이디별, 접속 주소별로 최근 window 동안 아이디/비밀번호가 틀린 횟수를 세고,
+ * 한도를 넘은 뒤의 시도는 회원 조회와 비밀번호 검증 전에 거절한다. 성공한 로그인은 세지 않는다.
+ * <ul>
+ *     <li>슬라이딩 윈도우 : 이번 구간과 바로 앞 구간의 횟수만 두고, 앞 구간은 지난 비율만큼 줄여서 더한다.</li>
+ *     <li>잠금 분할 : 키의 해시로 STRIPES 개 중 하나를 골라 그 구간만 잠근다. 서로 다른 아이디끼리는 거의 기다리지 않는다.</li>
+ *     <li>메모리 제한 : 구간마다 maxKeys / STRIPES 개까지만 두고, 넘으면 가장 오래 사용되지 않은 키부터 지운다.</li>
+ * </ul>
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 64;
+
+    private final Clock clock;
+    private final long windowMillis;
+    private final int maxPerUsername;
+    private final int maxPerAddress;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong usernameRejectedCount = new AtomicLong();
+    private final AtomicLong addressRejectedCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public LoginThrottle(MemberProperties properties, Clock clock) {
+        MemberProperties.Login config = properties.getLogin();
+        this.clock = clock;
+        this.windowMillis = config.getWindow().toMillis();
+        this.maxPerUsername = config.getMaxAttemptsPerUsername();
+        this.maxPerAddress = config.getMaxAttemptsPerAddress();
+
+        int keysPerStripe = Math.max(1, config.getMaxKeys() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+
+    /**
+     * 아이디와 접속 주소 모두 실패 한도 아래이면 true. 횟수는 올리지 않는다.
+     * (확인과 실패 기록 사이에 동시에 들어온 시도는 한도를 한두 번 넘길 수 있다)
+     */
+    public boolean isAllowed(String username, String address) {
+        String usernameKey = usernameKey(username);
+        String addressKey = addressKey(address);
+        long now = clock.millis();
+
+        if (estimate(usernameKey, now) >= maxPerUsername) {
+            usernameRejectedCount.incrementAndGet();
+            return false;
+        }
+        if (estimate(addressKey, now) >= maxPerAddress) {
+            addressRejectedCount.incrementAndGet();
+            return false;
+        }
+
+        admittedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 아이디/비밀번호가 틀린 로그인을 두 키에 모두 센다. (로그인 실패 처리에서 호출한다)
+     */
+    public void recordFailure(String username, String address) {
+        long now = clock.millis();
+        increment(usernameKey(username), now);
+        increment(addressKey(address), now);
+        failureCount.incrementAndGet();
+    }
+
+    /**
+     * 더 실패하지 않는다고 볼 때, 두 키의 추정 횟수가 모두 한도 아래로 내려가기까지 남은 초 (Retry-After 용)
+     */
+    public long getRetryAfterSeconds(String username, String address) {
+        long now = clock.millis();
+        long remaining = Math.max(retryAfterMillis(usernameKey(username), maxPerUsername, now),
+                retryAfterMillis(addressKey(address), maxPerAddress, now));
+        return Math.max(1, (remaining + 999) / 1000);
+    }
+
+    public Map<String, Object> getStats() {
+        long keys = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                keys += stripe.counters.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("admittedCount", admittedCount.get());
+        stats.put("failureCount", failureCount.get());
+        stats.put("usernameRejectedCount", usernameRejectedCount.get());
+        stats.put("addressRejectedCount", addressRejectedCount.get());
+        stats.put("keys", keys);
+        stats.put("evictionCount", evictionCount.get());
+        return stats;
+    }
+
+    private double estimate(String key, long now) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Counter counter = stripe.counters.get(key);
+            if (counter == null) {
+                return 0;
+            }
+            counter.roll(now / windowMillis);
+            double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+            return counter.previous * previousWeight + counter.current;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * 추정 횟수(앞 구간 * 남은 비율 + 이번 구간)가 limit 아래로 내려가는 때까지 남은 시간
+     */
+    private long retryAfterMillis(String key, int limit, long now) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Counter counter = stripe.counters.get(key);
+            if (counter == null) {
+                return 0;
+            }
+            long window = now / windowMillis;
+            counter.roll(window);
+
+            long at;
+            if (counter.current < limit) {
+                if (counter.previous == 0) {
+                    return 0;
+                }
+                //이번 구간 안에서 앞 구간의 남은 비율이 (limit - current) / previous 보다 작아지는 때
+                double fraction = 1.0 - (double) (limit - counter.current) / counter.previous;
+                at = window * windowMillis + (long) Math.floor(windowMillis * fraction) + 1;
+            } else {
+                //이번 구간만으로 한도에 닿았으면, 다음 구간에서 이번 구간 횟수가 limit 아래로 줄어드는 때
+                double fraction = 1.0 - (double) limit / counter.current;
+                at = (window + 1) * windowMillis + (long) Math.floor(windowMillis * fraction) + 1;
+            }
+            return Math.max(0, at - now);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void increment(String key, long now) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Counter counter = stripe.counters.computeIfAbsent(key, k -> new Counter(now / windowMillis));
+            counter.roll(now / windowMillis);
+            counter.current++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String addressKey(String address) {
+        return "a:" + address;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        //accessOrder = true : 맨 앞이 가장 오래 사용되지 않은 키
+        private final LinkedHashMap<String, Counter> counters;
+
+        private Stripe(int maxKeys) {
+            this.counters = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Counter> eldest) {
+                    if (size() > maxKeys) {
+                        evictionCount.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static class Counter {
+        private long window;
+        private int previous;
+        private int current;
+
+        private Counter(long window) {
+            this.window = window;
+        }
+
+        private void roll(long now) {
+            if (now == window) {
+                return;
+            }
+            previous = now == window + 1 ? current : 0;
+            current = 0;
+            window = now;
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package com.example.demo.components;
 
-import jakarta.mail.internet.MimeMessage;
+import com.example.demo.member.entity.MailOutbox;
+import com.example.demo.member.repository.MailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.mail.javamail.MimeMessagePreparator;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+
 @RequiredArgsConstructor
 @Component
 public class MailComponents {
 
     private final JavaMailSender javaMailSender;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailTemplates mailTemplates;
+    private final Clock clock;
 
     public void sendMailTest() {
 
@@ -25,27 +30,29 @@ public class MailComponents {
         javaMailSender.send(msg);
     }
 
-    public boolean sendMail(String mail, String subject, String text) {
-
-        boolean result = false;
-        MimeMessagePreparator msg = new MimeMessagePreparator() {
+    /**
+     * template 의 본문에 받는 사람 이름과 키가 들어간 링크를 넣어서 보낸다.
+     */
+    public void sendMail(String mail, MailTemplate template, String userName, String key) {
 
-            @Override
-            public void prepare(MimeMessage mimeMessage) throws Exception {
-                MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-                mimeMessageHelper.setTo(mail);
-                mimeMessageHelper.setSubject(subject);
-                mimeMessageHelper.setText(text, true);
-            }
-        };
-
-        try{
-            javaMailSender.send(msg);
-            result = true;
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        }
+        sendMail(mail, template.getSubject(), mailTemplates.render(template, userName, key));
+    }
 
-        return result;
+    /**
+     * 메일을 바로 보내지 않고 mail_outbox 에 저장한다. 실제 발송은 MailOutboxWorker 가 한다.
+     * 호출한 쪽의 트랜잭션에 함께 묶이므로, 회원 정보 저장이 롤백되면 메일도 나가지 않는다.
+     */
+    public void sendMail(String mail, String subject, String text) {
+
+        MailOutbox outbox = MailOutbox.builder()
+                .recipient(mail)
+                .subject(subject)
+                .text(text)
+                .status(MailOutbox.Status.PENDING)
+                .nextAttemptAt(clock.millis())
+                .regDt(LocalDateTime.now(clock))
+                .build();
+
+        mailOutboxRepository.save(outbox);
     }
 }
@@ -0,0 +1,287 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.entity.MailOutbox;
+import com.example.demo.member.repository.MailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * mail_outbox 에 쌓인 메일을 보내는 워커.
+ * <ul>
+ *     <li>배치 : 보낼 때가 된 메일을 batchSize 개씩 가져가서 JavaMailSender.send(MimeMessage...) 한 번으로 보낸다.
+ *     SMTP 연결(STARTTLS 포함)은 배치마다 한 번만 맺는다.</li>
+ *     <li>가져가기 : 조회한 행의 nextAttemptAt 을 lease 만큼 미루는 조건부 update 로 가져간다.
+ *     여러 워커, 여러 서버가 함께 돌아도 같은 메일을 두 번 보내지 않는다.</li>
+ *     <li>재시도 : 실패한 메일만 initialBackoff 부터 두 배씩(maxBackoff 까지) 늦춰서 다시 보내고,
+ *     maxAttempts 번 실패하면 DEAD 로 남긴다.</li>
+ * </ul>
+ */
+@Component
+public class MailOutboxWorker {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender javaMailSender;
+    private final Clock clock;
+    private final InternetAddress from;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long leaseMillis;
+
+    private ScheduledExecutorService executor;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong deadCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong claimConflictCount = new AtomicLong();
+    private volatile String lastError;
+
+    public MailOutboxWorker(MailOutboxRepository mailOutboxRepository, JavaMailSender javaMailSender,
+                            MemberProperties properties, Clock clock) {
+        MemberProperties.Mail config = properties.getMail();
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.clock = clock;
+        this.from = parseFrom(config.getFrom());
+        this.workers = Math.max(1, config.getWorkers());
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.pollIntervalMillis = config.getPollInterval().toMillis();
+        this.maxAttempts = Math.max(1, config.getMaxAttempts());
+        this.initialBackoffMillis = config.getInitialBackoff().toMillis();
+        this.maxBackoffMillis = config.getMaxBackoff().toMillis();
+        this.leaseMillis = config.getLease().toMillis();
+    }
+
+    /**
+     * 테이블이 만들어지고 나서 시작한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newScheduledThreadPool(workers, new CustomizableThreadFactory("mail-"));
+        for (int i = 0; i < workers; i++) {
+            executor.scheduleWithFixedDelay(this::drainQuietly, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 지금 보낼 메일이 없을 때까지 배치를 보내고, 보낸(성공한) 메일 수를 반환한다.
+     */
+    public int drain() {
+        int sent = 0;
+        while (true) {
+            Batch batch = sendBatch();
+            sent += batch.sent;
+            if (batch.claimed < batchSize) {
+                return sent;
+            }
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            //DB 오류 등은 다음 주기에 다시 시도한다
+            lastError = e.getMessage();
+        }
+    }
+
+    private Batch sendBatch() {
+        long now = clock.millis();
+        List<MailOutbox> claimed = new ArrayList<>();
+        for (MailOutbox mail : mailOutboxRepository.findDue(MailOutbox.Status.PENDING, now, PageRequest.of(0, batchSize))) {
+            if (mailOutboxRepository.claim(mail.getId(), mail.getNextAttemptAt(), now + leaseMillis) == 1) {
+                mail.setNextAttemptAt(now + leaseMillis);
+                claimed.add(mail);
+            } else {
+                claimConflictCount.incrementAndGet();
+            }
+        }
+        if (claimed.isEmpty()) {
+            return new Batch(0, 0);
+        }
+        batchCount.incrementAndGet();
+
+        //메일을 만들 수 없는(주소가 잘못된) 행은 보내지 않고 바로 실패로 처리한다
+        //엔티티의 equals 는 값으로 비교하므로 객체 자체로 구분한다
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        Map<MimeMessage, MailOutbox> messages = new LinkedHashMap<>();
+        for (MailOutbox mail : claimed) {
+            try {
+                messages.put(toMessage(mail), mail);
+            } catch (MessagingException | IllegalArgumentException e) {
+                failures.put(mail, e);
+            }
+        }
+
+        Map<Object, Exception> failedMessages = send(messages.keySet().toArray(new MimeMessage[0]));
+        messages.forEach((message, mail) -> {
+            Exception failure = failedMessages.get(message);
+            if (failure != null) {
+                failures.put(mail, failure);
+            }
+        });
+
+        List<MailOutbox> sent = new ArrayList<>();
+        List<MailOutbox> failed = new ArrayList<>();
+        for (MailOutbox mail : claimed) {
+            Exception failure = failures.get(mail);
+            if (failure == null) {
+                sent.add(mail);
+            } else {
+                fail(mail, failure, now);
+                failed.add(mail);
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            mailOutboxRepository.deleteAllInBatch(sent);
+            sentCount.addAndGet(sent.size());
+        }
+        if (!failed.isEmpty()) {
+            mailOutboxRepository.saveAll(failed);
+        }
+        return new Batch(claimed.size(), sent.size());
+    }
+
+    /**
+     * 실패한 메시지와 원인. (연결 자체가 실패하면 모든 메시지가 실패한 것으로 본다)
+     */
+    private Map<Object, Exception> send(MimeMessage[] messages) {
+        if (messages.length == 0) {
+            return Collections.emptyMap();
+        }
+        try {
+            javaMailSender.send(messages);
+            return Collections.emptyMap();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return allFailed(messages, e);
+        } catch (MailException e) {
+            return allFailed(messages, e);
+        }
+    }
+
+    private static Map<Object, Exception> allFailed(MimeMessage[] messages, Exception e) {
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        for (MimeMessage message : messages) {
+            failed.put(message, e);
+        }
+        return failed;
+    }
+
+    private MimeMessage toMessage(MailOutbox mail) throws MessagingException {
+        //첨부가 없으므로 multipart 로 감싸지 않고 text/html 한 부분으로 만든다
+        MimeMessage message = javaMailSender.createMimeMessage();
+        if (from != null) {
+            message.setFrom(from);
+        }
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(mail.getRecipient(), true));
+        message.setSubject(mail.getSubject(), "UTF-8");
+        message.setText(mail.getText(), "UTF-8", "html");
+        return message;
+    }
+
+    /**
+     * 보내는 사람 주소는 시작할 때 한 번만 읽어서 모든 메일에 같이 쓴다.
+     */
+    private static InternetAddress parseFrom(String from) {
+        if (!StringUtils.hasText(from)) {
+            return null;
+        }
+        try {
+            return new InternetAddress(from, true);
+        } catch (AddressException e) {
+            throw new IllegalArgumentException("member.mail.from 주소가 올바르지 않습니다. (" + from + ")", e);
+        }
+    }
+
+    private void fail(MailOutbox mail, Exception e, long now) {
+        int attempts = mail.getAttempts() + 1;
+        String message = String.valueOf(e.getMessage());
+        mail.setAttempts(attempts);
+        mail.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        lastError = message;
+
+        if (attempts >= maxAttempts) {
+            mail.setStatus(MailOutbox.Status.DEAD);
+            deadCount.incrementAndGet();
+        } else {
+            mail.setNextAttemptAt(now + backoffMillis(attempts));
+            retryCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * attempts 번 실패한 뒤 기다릴 시간 : initialBackoff * 2^(attempts-1), 최대 maxBackoff
+     */
+    long backoffMillis(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(maxBackoffMillis, initialBackoffMillis << shift);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", mailOutboxRepository.countByStatus(MailOutbox.Status.PENDING));
+        stats.put("dead", mailOutboxRepository.countByStatus(MailOutbox.Status.DEAD));
+        stats.put("sentCount", sentCount.get());
+        stats.put("retryCount", retryCount.get());
+        stats.put("deadCount", deadCount.get());
+        stats.put("batchCount", batchCount.get());
+        stats.put("claimConflictCount", claimConflictCount.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    private static class Batch {
+        private final int claimed;
+        private final int sent;
+
+        private Batch(int claimed, int sent) {
+            this.claimed = claimed;
+            this.sent = sent;
+        }
+    }
+}
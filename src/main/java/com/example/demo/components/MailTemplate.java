@@ -0,0 +1,21 @@
+package com.example.demo.components;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 보내는 메일의 종류. 본문은 templates/{view}.html 이고, 받는 사람마다 userName 과 link 만 바뀐다.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MailTemplate {
+
+    SIGNUP("mail/signup", "demo 사이트 가입을 축하드립니다.", "/member/email-auth"),
+    RESET_PASSWORD("mail/reset_password", "[demo] 비밀번호 초기화 메일 입니다.", "/member/reset/password");
+
+    private final String view;
+    private final String subject;
+
+    //메일의 링크가 가리키는 화면. member.mail.base-url 뒤에 붙이고 ?id= 로 키를 넘긴다
+    private final String linkPath;
+}
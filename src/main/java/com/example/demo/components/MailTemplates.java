@@ -0,0 +1,127 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 메일 본문 템플릿.
+ * 템플릿마다 Thymeleaf 로 한 번만 렌더링하면서 받는 사람마다 바뀌는 값(userName, link) 자리에 표시를 넣어 두고,
+ * 표시를 기준으로 고정된 조각들로 나눠서 보관한다. 메일을 만들 때는 조각 사이에 HTML 이스케이프한 값만 끼워 넣는다.
+ * (템플릿을 고치면 서버를 다시 시작해야 반영된다)
+ */
+@Component
+public class MailTemplates {
+
+    private static final String USER_NAME = "userName";
+    private static final String LINK = "link";
+    private static final Pattern SLOT = Pattern.compile("@@(\\w+)@@");
+
+    private final ITemplateEngine templateEngine;
+    private final String baseUrl;
+    private final Map<MailTemplate, Compiled> compiled = new EnumMap<>(MailTemplate.class);
+
+    private final AtomicLong compileCount = new AtomicLong();
+    private final AtomicLong renderCount = new AtomicLong();
+
+    public MailTemplates(ITemplateEngine templateEngine, MemberProperties properties) {
+        this.templateEngine = templateEngine;
+        this.baseUrl = properties.getMail().getBaseUrl();
+    }
+
+    /**
+     * 받는 사람 이름과 링크에 넘길 키로 본문을 만든다.
+     */
+    public String render(MailTemplate template, String userName, String key) {
+        String link = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .path(template.getLinkPath())
+                .queryParam("id", key)
+                .encode()
+                .toUriString();
+
+        Map<String, String> values = Map.of(USER_NAME, userName == null ? "" : userName, LINK, link);
+        renderCount.incrementAndGet();
+        return compiled(template).render(values);
+    }
+
+    private Compiled compiled(MailTemplate template) {
+        synchronized (compiled) {
+            return compiled.computeIfAbsent(template, this::compile);
+        }
+    }
+
+    private Compiled compile(MailTemplate template) {
+        Context context = new Context(Locale.KOREAN);
+        context.setVariable(USER_NAME, "@@" + USER_NAME + "@@");
+        context.setVariable(LINK, "@@" + LINK + "@@");
+        String html = templateEngine.process(template.getView(), context);
+        compileCount.incrementAndGet();
+        return Compiled.of(html);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("compileCount", compileCount.get());
+        stats.put("renderCount", renderCount.get());
+        return stats;
+    }
+
+    /**
+     * 고정된 조각(fragments)과 그 사이에 들어갈 값의 이름(slots). fragments 가 slots 보다 하나 많다.
+     */
+    private static class Compiled {
+        private final String[] fragments;
+        private final String[] slots;
+        private final int length;
+
+        private Compiled(String[] fragments, String[] slots) {
+            this.fragments = fragments;
+            this.slots = slots;
+            int length = 0;
+            for (String fragment : fragments) {
+                length += fragment.length();
+            }
+            this.length = length;
+        }
+
+        private static Compiled of(String html) {
+            List<String> fragments = new ArrayList<>();
+            List<String> slots = new ArrayList<>();
+            Matcher matcher = SLOT.matcher(html);
+            int start = 0;
+            while (matcher.find()) {
+                fragments.add(html.substring(start, matcher.start()));
+                slots.add(matcher.group(1));
+                start = matcher.end();
+            }
+            fragments.add(html.substring(start));
+            return new Compiled(fragments.toArray(new String[0]), slots.toArray(new String[0]));
+        }
+
+        private String render(Map<String, String> values) {
+            StringBuilder html = new StringBuilder(length + 256);
+            for (int i = 0; i < slots.length; i++) {
+                html.append(fragments[i]);
+                String value = values.get(slots[i]);
+                if (value == null) {
+                    throw new IllegalArgumentException("메일 템플릿에 없는 값입니다. (" + slots[i] + ")");
+                }
+                html.append(HtmlUtils.htmlEscape(value));
+            }
+            return html.append(fragments[slots.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.entity.MemberToken;
+import com.example.demo.member.repository.MemberTokenRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 이메일 인증/비밀번호 초기화 키 저장소 (member_token).
+ * <ul>
+ *     <li>조회 : 키의 SHA-256 으로 token_hash 유니크 인덱스를 찾으므로 회원 수와 관계없이 한 행만 읽는다.</li>
+ *     <li>사용 : 조건부 update 한 번으로 사용 처리하므로 같은 링크를 두 번 눌러도 한 번만 성공한다.</li>
+ *     <li>정리 : sweepInterval 마다 만료된 행을 sweepBatchSize 개씩 지운다. 한 번에 잠그는 행 수가 제한된다.</li>
+ * </ul>
+ */
+@Component
+public class MemberTokens {
+
+    private final MemberTokenRepository memberTokenRepository;
+    private final Clock clock;
+    private final long emailAuthTtlMillis;
+    private final long resetPasswordTtlMillis;
+    private final long sweepIntervalMillis;
+    private final int sweepBatchSize;
+
+    private ScheduledExecutorService executor;
+
+    private final AtomicLong issuedCount = new AtomicLong();
+    private final AtomicLong consumedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong purgedCount = new AtomicLong();
+    private volatile long lastSweepMillis;
+
+    public MemberTokens(MemberTokenRepository memberTokenRepository, MemberProperties properties, Clock clock) {
+        MemberProperties.Token config = properties.getToken();
+        this.memberTokenRepository = memberTokenRepository;
+        this.clock = clock;
+        this.emailAuthTtlMillis = config.getEmailAuthTtl().toMillis();
+        this.resetPasswordTtlMillis = config.getResetPasswordTtl().toMillis();
+        this.sweepIntervalMillis = config.getSweepInterval().toMillis();
+        this.sweepBatchSize = Math.max(1, config.getSweepBatchSize());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("token-sweeper-"));
+        executor.scheduleWithFixedDelay(this::sweepQuietly, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 새 키를 만들어 저장하고, 메일에 넣을 키(원문)를 반환한다.
+     */
+    public String issue(String userId, MemberToken.Purpose purpose) {
+        long ttl = purpose == MemberToken.Purpose.EMAIL_AUTH ? emailAuthTtlMillis : resetPasswordTtlMillis;
+        String token = UUID.randomUUID().toString();
+        store(token, userId, purpose, clock.millis() + ttl);
+        return token;
+    }
+
+    /**
+     * 이미 발급한 키를 저장한다. (member 테이블에 남아 있던 키를 옮길 때 사용)
+     */
+    public void store(String token, String userId, MemberToken.Purpose purpose, long expiresAt) {
+        MemberToken memberToken = MemberToken.builder()
+                .tokenHash(hash(token))
+                .userId(userId)
+                .purpose(purpose)
+                .expiresAt(expiresAt)
+                .build();
+        memberTokenRepository.save(memberToken);
+        issuedCount.incrementAndGet();
+    }
+
+    /**
+     * 사용할 수 있는 키이면 회원 아이디. 사용 처리는 하지 않는다. (비밀번호 초기화 화면을 보여줄 때 사용)
+     */
+    public Optional<String> find(String token, MemberToken.Purpose purpose) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        return memberTokenRepository.findByTokenHash(hash(token))
+                .filter(memberToken -> memberToken.getPurpose() == purpose
+                        && memberToken.getUsedAt() == null
+                        && memberToken.getExpiresAt() > now)
+                .map(MemberToken::getUserId);
+    }
+
+    /**
+     * 키를 사용 처리하고 회원 아이디를 반환한다. 없거나, 만료됐거나, 이미 사용한 키이면 빈 값.
+     */
+    public Optional<String> consume(String token, MemberToken.Purpose purpose) {
+        if (token == null || token.isEmpty()) {
+            rejectedCount.incrementAndGet();
+            return Optional.empty();
+        }
+        String tokenHash = hash(token);
+        if (memberTokenRepository.consume(tokenHash, purpose, clock.millis()) != 1) {
+            rejectedCount.incrementAndGet();
+            return Optional.empty();
+        }
+        consumedCount.incrementAndGet();
+        return memberTokenRepository.findByTokenHash(tokenHash).map(MemberToken::getUserId);
+    }
+
+    /**
+     * 만료된 행을 sweepBatchSize 개씩, 남은 것이 없을 때까지 지우고 지운 행 수를 반환한다.
+     */
+    public int sweep() {
+        long now = clock.millis();
+        int purged = 0;
+        while (true) {
+            List<Long> ids = memberTokenRepository.findExpiredIds(now, PageRequest.of(0, sweepBatchSize));
+            if (!ids.isEmpty()) {
+                memberTokenRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+                purgedCount.addAndGet(ids.size());
+            }
+            if (ids.size() < sweepBatchSize) {
+                lastSweepMillis = now;
+                return purged;
+            }
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            //DB 오류 등은 다음 주기에 다시 시도한다
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("issuedCount", issuedCount.get());
+        stats.put("consumedCount", consumedCount.get());
+        stats.put("rejectedCount", rejectedCount.get());
+        stats.put("purgedCount", purgedCount.get());
+        stats.put("lastSweepMillis", lastSweepMillis);
+        return stats;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.model.MemberUser;
+import com.example.demo.member.repository.MemberRepository;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 로그인할 때 loadUserByUsername 결과를 담아 두는 캐시. (DaoAuthenticationProvider 의 UserCache)
+ * maxEntries 를 넘으면 가장 오래 사용되지 않은 회원부터 제거하고(LRU), ttl 이 지나면 DB 에서 다시 읽는다.
+ * 로그인이 끝나면 ProviderManager 가 인증 객체의 비밀번호를 지우므로(eraseCredentials) 담을 때와 꺼낼 때 복사본을 쓴다.
+ * 캐시에서 꺼낸 값으로 비밀번호가 맞지 않으면 DaoAuthenticationProvider 가 DB 에서 다시 읽어 확인한다.
+ * 지운 회원은 잠시 담지 않는다. 지우기 전에 시작한 로그인이 바뀌기 전 값을 다시 담는 것을 막기 위해서다.
+ * <p>
+ * 캐시는 서버마다 따로 있으므로, 다른 서버에서 비밀번호/인증 여부/권한을 바꾸면 이 서버의 removeUserFromCache 는 불리지 않는다.
+ * 그래서 담을 때 member.credentials_version 을 같이 담고, 마지막으로 확인한 지 recheck 가 지난 값을 꺼낼 때만
+ * DB 의 버전(기본 키로 한 칸만 읽는다)과 비교해서 다르면 버린다.
+ * <ul>
+ *     <li>같은 서버에서 바꾼 내용은 removeUserFromCache 로 바로 반영된다.</li>
+ *     <li>다른 서버에서 바꾼 내용은 최대 recheck 동안 이전 값(이전 비밀번호 포함)으로 로그인될 수 있다.</li>
+ *     <li>대신 recheck 안에 같은 회원이 다시 로그인하면 DB 를 읽지 않는다. recheck 를 0 으로 두면 매번 확인한다.</li>
+ * </ul>
+ */
+@Component
+public class MemberUserCache implements UserCache {
+
+    //removeUserFromCache 후 다시 담지 않는 시간 (진행 중이던 loadUserByUsername 이 끝날 때까지)
+    private static final long INVALIDATION_GUARD_MILLIS = 10_000;
+
+    private final MemberRepository memberRepository;
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long recheckMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+    private final AtomicLong versionCheckCount = new AtomicLong();
+
+    public MemberUserCache(MemberRepository memberRepository, MemberProperties properties, Clock clock) {
+        this.memberRepository = memberRepository;
+        this.clock = clock;
+        this.maxEntries = properties.getUserCache().getMaxEntries();
+        this.ttlMillis = properties.getUserCache().getTtl().toMillis();
+        this.recheckMillis = properties.getUserCache().getRecheck().toMillis();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        long now = clock.millis();
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(username);
+            if (entry == null || entry.user == null || entry.expiresAt <= now) {
+                if (entry != null && entry.expiresAt <= now) {
+                    entries.remove(username);
+                }
+                missCount.incrementAndGet();
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (now - entry.checkedAt < recheckMillis) {
+            hitCount.incrementAndGet();
+            return copy(entry.user);
+        }
+
+        //다른 서버에서 바뀌었으면(또는 탈퇴했으면) 버리고 DB 에서 다시 읽게 한다
+        Long version = memberRepository.findCredentialsVersion(username).orElse(null);
+        if (version == null || version != entry.version) {
+            lock.lock();
+            try {
+                if (entries.get(username) == entry) {
+                    entries.remove(username);
+                }
+            } finally {
+                lock.unlock();
+            }
+            staleCount.incrementAndGet();
+            missCount.incrementAndGet();
+            return null;
+        }
+        entry.checkedAt = now;
+        versionCheckCount.incrementAndGet();
+        hitCount.incrementAndGet();
+        return copy(entry.user);
+    }
+
+    /**
+     * 버전을 알 수 있는 MemberUser 만 담는다.
+     */
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (!(user instanceof MemberUser memberUser)) {
+            return;
+        }
+        long now = clock.millis();
+        Entry entry = new Entry(copy(user), memberUser.getCredentialsVersion(), now, now + ttlMillis);
+        lock.lock();
+        try {
+            Entry current = entries.get(user.getUsername());
+            if (current != null && current.user == null && current.expiresAt > now) {
+                return;
+            }
+            entries.put(user.getUsername(), entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 비밀번호, 인증 여부, 권한이 바뀌면 저장한 뒤에 호출한다.
+     */
+    @Override
+    public void removeUserFromCache(String username) {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            entries.put(username, new Entry(null, 0, now, now + INVALIDATION_GUARD_MILLIS));
+            invalidationCount.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("entries", entries.size());
+        } finally {
+            lock.unlock();
+        }
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictionCount", evictionCount.get());
+        stats.put("invalidationCount", invalidationCount.get());
+        stats.put("staleCount", staleCount.get());
+        stats.put("versionCheckCount", versionCheckCount.get());
+        return stats;
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+
+    private static class Entry {
+        //null 이면 방금 지운 회원 (expiresAt 까지 다시 담지 않는다)
+        private final UserDetails user;
+        private final long version;
+        private final long expiresAt;
+        //DB 의 버전과 마지막으로 맞춰 본 시각 (담을 때는 방금 DB 에서 읽은 값이므로 담은 시각)
+        private volatile long checkedAt;
+
+        private Entry(UserDetails user, long version, long checkedAt, long expiresAt) {
+            this.user = user;
+            this.version = version;
+            this.checkedAt = checkedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendQuery;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 데이터랩 응답 메모리 캐시.
+ * 정규화된 요청(TrendQuery)을 키로 쓰고, 응답의 추정 크기 합계가 maxBytes 를 넘으면
+ * 가장 오래 사용되지 않은 항목부터 제거한다(LRU).
+ * 오늘까지 걸친 기간은 recentTtl, 이미 지난 기간은 historicalTtl 동안 유지한다.
+ * 유효 시간이 지난 값도 staleTtl 동안은 지우지 않고 남겨서, API 장애 시 getStale 로 대신 보여줄 수 있게 한다.
+ */
+@Component
+public class TrendCache {
+
+    private final Clock clock;
+    private final long maxBytes;
+    private final Duration recentTtl;
+    private final Duration historicalTtl;
+    private final long staleTtlMillis;
+
+    //accessOrder = true : get 할 때마다 맨 뒤로 이동하므로 맨 앞이 가장 오래 사용되지 않은 항목이다
+    private final LinkedHashMap<TrendQuery, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+
+    public TrendCache(DatalabProperties properties, Clock clock) {
+        this.clock = clock;
+        this.maxBytes = properties.getCache().getMaxBytes();
+        this.recentTtl = properties.getCache().getRecentTtl();
+        this.historicalTtl = properties.getCache().getHistoricalTtl();
+        this.staleTtlMillis = properties.getCache().getStaleTtl().toMillis();
+    }
+
+    public TrendChart get(TrendQuery trendQuery) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(trendQuery);
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+
+            long now = clock.millis();
+            if (entry.expiresAt <= now) {
+                if (entry.expiresAt + staleTtlMillis <= now) {
+                    remove(trendQuery);
+                }
+                expiredCount.incrementAndGet();
+                missCount.incrementAndGet();
+                return null;
+            }
+
+            hitCount.incrementAndGet();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 유효 시간과 상관없이 마지막으로 담은 값을 돌려준다. (staleTtl 이 지났으면 null)
+     */
+    public TrendChart getStale(TrendQuery trendQuery) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(trendQuery);
+            if (entry == null || entry.expiresAt + staleTtlMillis <= clock.millis()) {
+                return null;
+            }
+            staleHitCount.incrementAndGet();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(TrendQuery trendQuery, TrendChart value) {
+        long weight = weigh(trendQuery, value);
+        if (weight > maxBytes) {
+            return;
+        }
+
+        Duration ttl = trendQuery.isOpenEnded(LocalDate.now(clock)) ? recentTtl : historicalTtl;
+        Entry entry = new Entry(value, weight, clock.millis() + ttl.toMillis());
+
+        lock.lock();
+        try {
+            remove(trendQuery);
+            entries.put(trendQuery, entry);
+            currentBytes += weight;
+
+            Iterator<Map.Entry<TrendQuery, Entry>> iterator = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<TrendQuery, Entry> eldest = iterator.next();
+                currentBytes -= eldest.getValue().weight;
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            currentBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", entries.size());
+            stats.put("bytes", currentBytes);
+            stats.put("maxBytes", maxBytes);
+            stats.put("hitCount", hitCount.get());
+            stats.put("missCount", missCount.get());
+            stats.put("evictionCount", evictionCount.get());
+            stats.put("expiredCount", expiredCount.get());
+            stats.put("staleHitCount", staleHitCount.get());
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //lock 을 잡은 상태에서 호출해야 한다
+    private void remove(TrendQuery trendQuery) {
+        Entry removed = entries.remove(trendQuery);
+        if (removed != null) {
+            currentBytes -= removed.weight;
+        }
+    }
+
+    /**
+     * 응답이 힙에서 차지하는 크기를 대략 계산한다. (키 + 공유 기간 축 + 검색어별 비율 배열)
+     */
+    private static long weigh(TrendQuery trendQuery, TrendChart value) {
+        long weight = 128;
+        for (String keyword : trendQuery.getKeywords()) {
+            weight += 48 + keyword.length() * 2L;
+        }
+        return weight + value.estimateBytes();
+    }
+
+    private static class Entry {
+        private final TrendChart value;
+        private final long weight;
+        private final long expiresAt;
+
+        private Entry(TrendChart value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.components;
+
+import com.example.demo.member.dto.TrendChart;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * 화면에 보내기 전에 트렌드 점 개수를 줄인다.
+ * <ul>
+ *     <li>rollup : 일별 값을 주/월 단위로 묶는다. 주/월 단위도 일별로 받아 두면 단위를 바꿀 때 다시 요청하지 않아도 된다.</li>
+ *     <li>downsample : LTTB(Largest-Triangle-Three-Buckets)로 모양을 유지하면서 지정한 점 개수로 줄인다.</li>
+ * </ul>
+ */
+public class TrendReducer {
+
+    public static final String DATE = "date";
+    public static final String WEEK = "week";
+    public static final String MONTH = "month";
+
+    private TrendReducer() {
+    }
+
+    public static boolean isRollupUnit(String timeUnit) {
+        return WEEK.equals(timeUnit) || MONTH.equals(timeUnit);
+    }
+
+    /**
+     * 일별 값을 주(월요일 시작)/월 단위로 합산하고, 전체 최댓값이 다시 100 이 되도록 맞춘다.
+     * 데이터랩 비율은 한 요청 안에서 검색량에 비례하므로 합산 결과는 주/월 단위로 요청한 값과 같다.
+     * 각 구간의 기간은 구간 시작일이고, 첫 구간은 조회 시작일(startDay)부터 센다.
+     */
+    public static TrendChart rollup(TrendChart daily, String timeUnit, int startDay) {
+        if (!isRollupUnit(timeUnit) || daily.getPeriod().length == 0) {
+            return daily;
+        }
+
+        int[] days = daily.getPeriod();
+        int keywordCount = daily.getKeywords().size();
+
+        int[] period = new int[days.length];
+        double[][] sums = new double[keywordCount][days.length];
+        for (double[] column : sums) {
+            Arrays.fill(column, Double.NaN);
+        }
+
+        int buckets = 0;
+        int currentBucket = Integer.MIN_VALUE;
+        for (int i = 0; i < days.length; i++) {
+            int bucket = Math.max(bucketStart(days[i], timeUnit), startDay);
+            if (bucket != currentBucket) {
+                currentBucket = bucket;
+                period[buckets++] = bucket;
+            }
+            for (int k = 0; k < keywordCount; k++) {
+                double value = daily.getRatio(k)[i];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                double sum = sums[k][buckets - 1];
+                sums[k][buckets - 1] = Double.isNaN(sum) ? value : sum + value;
+            }
+        }
+
+        double max = 0;
+        for (double[] column : sums) {
+            for (int i = 0; i < buckets; i++) {
+                if (!Double.isNaN(column[i])) {
+                    max = Math.max(max, column[i]);
+                }
+            }
+        }
+        double factor = max > 0 ? 100 / max : 1;
+
+        double[][] ratio = new double[keywordCount][];
+        for (int k = 0; k < keywordCount; k++) {
+            ratio[k] = Arrays.copyOf(sums[k], buckets);
+            for (int i = 0; i < buckets; i++) {
+                ratio[k][i] *= factor;
+            }
+        }
+
+        return daily.withValues(Arrays.copyOf(period, buckets), ratio);
+    }
+
+    /**
+     * 점 개수가 points 보다 많으면 LTTB 로 points 개만 남긴다. (처음과 마지막 점은 항상 남는다)
+     * 검색어들이 기간 축을 공유하므로, 시점마다 검색어 중 최댓값으로 만든 윤곽선에서 남길 시점을 고르고
+     * 모든 검색어에 같은 시점을 적용한다. 가장 큰 봉우리가 빠지지 않고 축도 그대로 공유된다.
+     */
+    public static TrendChart downsample(TrendChart chart, int points) {
+        int[] days = chart.getPeriod();
+        int length = days.length;
+        if (points < 3 || length <= points) {
+            return chart;
+        }
+
+        int keywordCount = chart.getKeywords().size();
+        double[] envelope = new double[length];
+        for (int i = 0; i < length; i++) {
+            double max = 0;
+            for (int k = 0; k < keywordCount; k++) {
+                double value = chart.getRatio(k)[i];
+                if (!Double.isNaN(value)) {
+                    max = Math.max(max, value);
+                }
+            }
+            envelope[i] = max;
+        }
+
+        int[] selected = lttb(days, envelope, points);
+
+        int[] period = new int[selected.length];
+        double[][] ratio = new double[keywordCount][selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            period[i] = days[selected[i]];
+            for (int k = 0; k < keywordCount; k++) {
+                ratio[k][i] = chart.getRatio(k)[selected[i]];
+            }
+        }
+        return chart.withValues(period, ratio);
+    }
+
+    /**
+     * 남길 점의 위치(오름차순)를 돌려준다.
+     * 처음/마지막 점을 뺀 나머지를 (points - 2)개 구간으로 나누고, 구간마다 직전에 고른 점과
+     * 다음 구간의 평균점이 이루는 삼각형의 넓이가 가장 큰 점을 고른다.
+     */
+    static int[] lttb(int[] x, double[] y, int points) {
+        int length = x.length;
+        int[] selected = new int[points];
+        double bucketSize = (double) (length - 2) / (points - 2);
+
+        int previous = 0;
+        selected[0] = 0;
+        for (int b = 0; b < points - 2; b++) {
+            int start = (int) (b * bucketSize) + 1;
+            int end = (int) ((b + 1) * bucketSize) + 1;
+
+            //다음 구간의 평균점 (마지막 구간이면 마지막 점)
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((b + 2) * bucketSize) + 1, length);
+            if (b == points - 3) {
+                nextStart = length - 1;
+                nextEnd = length;
+            }
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+
+            selected[b + 1] = chosen;
+            previous = chosen;
+        }
+        selected[points - 1] = length - 1;
+        return selected;
+    }
+
+    private static int bucketStart(int day, String timeUnit) {
+        if (WEEK.equals(timeUnit)) {
+            //1970-01-01(epochDay 0)은 목요일이므로 (day + 3) 을 7 로 나눈 나머지가 월요일부터 지난 날 수다
+            return day - Math.floorMod(day + 3, 7);
+        }
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return (int) date.withDayOfMonth(1).toEpochDay();
+    }
+}
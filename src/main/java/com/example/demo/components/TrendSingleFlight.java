@@ -0,0 +1,117 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendQuery;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 같은 요청(TrendQuery)이 동시에 여러 번 들어오면 처음 들어온 호출만 실제로 조회하고,
+ * 나머지 호출은 그 결과를 함께 기다려서 받는다. (single-flight)
+ *
+ * 조회는 호출한 스레드가 아니라 이 클래스의 스레드 풀에서 실행한다.
+ * 호출한 쪽이 제한 시간을 넘기거나 중단(interrupt)되어도 그 호출만 기다리기를 그만두고,
+ * 조회는 계속 진행되어 함께 기다리는 다른 호출과 캐시에 결과를 남긴다.
+ */
+@Component
+public class TrendSingleFlight {
+
+    private final ConcurrentHashMap<TrendQuery, CompletableFuture<TrendChart>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong leaderCount = new AtomicLong();
+    private final AtomicLong collapsedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public TrendSingleFlight(DatalabProperties properties) {
+        //검색어 묶음별로 기다리는 trendExecutor 와 따로 두어야 기다리는 스레드가 조회할 자리를 차지하지 않는다
+        this.executor = new ThreadPoolExecutor(
+                properties.getFanOutThreads(), properties.getFanOutThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getFanOutQueue()),
+                new CustomizableThreadFactory("trend-load-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 결과를 timeout 까지 기다린다. 넘으면 DatalabException 을 던지고, 조회는 계속 진행된다.
+     */
+    public TrendChart execute(TrendQuery trendQuery, Supplier<TrendChart> loader, Duration timeout) {
+        CompletableFuture<TrendChart> created = new CompletableFuture<>();
+        CompletableFuture<TrendChart> existing = inFlight.putIfAbsent(trendQuery, created);
+        if (existing != null) {
+            collapsedCount.incrementAndGet();
+            return await(existing, timeout);
+        }
+
+        leaderCount.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(loader.get());
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(trendQuery, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            inFlight.remove(trendQuery, created);
+            created.completeExceptionally(new DatalabException("요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", e));
+        }
+        return await(created, timeout);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.size());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("leaderCount", leaderCount.get());
+        stats.put("collapsedCount", collapsedCount.get());
+        stats.put("timeoutCount", timeoutCount.get());
+        stats.put("rejectedCount", rejectedCount.get());
+        return stats;
+    }
+
+    private TrendChart await(CompletableFuture<TrendChart> future, Duration timeout) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            //기다리던 호출만 그만둔다. future 를 취소하지 않으므로 다른 호출은 계속 기다릴 수 있다
+            timeoutCount.incrementAndGet();
+            throw new DatalabException("API 응답 시간이 초과되었습니다.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatalabException("API 요청이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DatalabException("API 요청과 응답 실패", e.getCause());
+        }
+    }
+}
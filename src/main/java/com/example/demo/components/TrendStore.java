@@ -0,0 +1,893 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 지난 기간의 일별(timeUnit=date) 트렌드를 디스크에 보관하는 저장소.
+ * 이미 끝난 날짜의 값은 바뀌지 않으므로 한 번 받아 두면 다시 요청하지 않고, 재시작해도 그대로 남는다.
+ *
+ * 파일은 조회 조건(TrendQuery.fingerprint)마다 하나이고, 헤더 뒤에 세그먼트를 계속 덧붙이는 구조다.
+ * <pre>
+ * 헤더     : magic(int) version(int) groupCount(int)
+ * 세그먼트 : island(int) rangeCount(int) ranges(int[rangeCount * 2]) count(int) days(int[count]) ratios(double[groupCount][count])
+ * </pre>
+ * ranges 는 그 세그먼트가 담은 기간([fromDay, toDay] 쌍, epochDay)이다. 데이터랩은 값이 없는 날을 빼고 주므로
+ * 이 기간 안에서 days 에 없는 날은 "값 없음"으로 본다. 값이 없는 검색어 칸은 NaN 으로 채운다.
+ *
+ * 데이터랩 비율은 요청 기간 안의 최댓값을 100 으로 한 상대값이라서, 같은 기준으로 맞춘 세그먼트끼리 같은 island 번호를 쓴다.
+ * <ul>
+ *     <li>새 값이 기존 island 와 겹치는 날이 있으면 겹치는 구간의 합으로 그 island 기준에 맞춰 덧붙인다.</li>
+ *     <li>겹치는 날이 없으면 기존 값은 그대로 두고 새 island 로 덧붙인다.</li>
+ *     <li>새 값이 여러 island 에 걸치면 그 값을 다리 삼아 island 들을 한 기준으로 맞추고 하나로 합쳐서 다시 쓴다.</li>
+ * </ul>
+ * 읽을 때는 요청 기간 전체를 가진 island 하나에서 꺼내고, 요청 기간 안의 최댓값이 다시 100 이 되도록 맞춘다.
+ * 마지막 압축 뒤로 덧붙인 세그먼트가 compactSegments 개가 되면 island 마다 세그먼트 하나로 다시 쓴다.
+ */
+@Slf4j
+@Component
+public class TrendStore {
+
+    private static final int MAGIC = 0x54524E44; // "TRND"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 12;
+    //island(int) rangeCount(int)
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final String EXTENSION = ".trend";
+    private static final int LOCK_STRIPES = 32;
+    //빠진 구간을 받을 때 기준을 맞추기 위해 함께 받는 저장된 날짜 수 (값이 없는 날이 있어도 겹치도록 여유를 둔다)
+    private static final int ANCHOR_DAYS = 7;
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final int compactSegments;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ReentrantLock budgetLock = new ReentrantLock();
+    private final AtomicLong totalBytes = new AtomicLong();
+    //파일 이름 -> 마지막으로 읽거나 쓴 시각. 읽을 때마다 파일 수정 시각을 바꾸지 않도록 메모리에만 둔다
+    private final Map<String, Long> lastAccess = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong stitchCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong islandCount = new AtomicLong();
+    private final AtomicLong joinCount = new AtomicLong();
+    private final AtomicLong compactionCount = new AtomicLong();
+    private final AtomicLong deleteCount = new AtomicLong();
+
+    public TrendStore(DatalabProperties properties, Clock clock) {
+        this.clock = clock;
+        this.enabled = properties.getStore().isEnabled();
+        this.directory = Paths.get(properties.getStore().getPath());
+        this.maxBytes = properties.getStore().getMaxBytes();
+        this.compactSegments = properties.getStore().getCompactSegments();
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        if (enabled) {
+            try {
+                Files.createDirectories(directory);
+                totalBytes.set(directorySize());
+            } catch (IOException e) {
+                throw new UncheckedIOException("트렌드 저장소 디렉터리를 만들 수 없습니다. : " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * 요청 기간 전체가 저장되어 있으면 결과를 돌려주고, 아니면 null 을 돌려준다.
+     */
+    public TrendChart read(TrendQuery trendQuery) {
+        return read(trendQuery, null, null);
+    }
+
+    /**
+     * 저장된 값에 tail(저장하지 않는 오늘 이후 구간 등)을 이어 붙여서 돌려준다.
+     * tail 은 저장된 값과 겹치는 날짜로 기준을 맞춘다. 맞출 수 없거나 기간이 다 채워지지 않으면 null.
+     */
+    public TrendChart read(TrendQuery trendQuery, TrendQuery tailQuery, TrendChart tail) {
+        if (!supports(trendQuery)) {
+            return null;
+        }
+
+        String fingerprint = trendQuery.fingerprint();
+        Path file = file(fingerprint);
+        int groupCount = trendQuery.getKeywords().size();
+        int from = (int) trendQuery.getStartDate().toEpochDay();
+        int to = (int) trendQuery.getEndDate().toEpochDay();
+
+        ReentrantLock lock = lock(fingerprint);
+        lock.lock();
+        try {
+            StoredFile stored = load(file, groupCount);
+            if (stored == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+
+            StoredSeries incoming = tail == null ? null : StoredSeries.of(trendQuery.getKeywords(), tail,
+                    (int) tailQuery.getStartDate().toEpochDay(), (int) tailQuery.getEndDate().toEpochDay());
+            for (StoredSeries island : stored.islands.values()) {
+                StoredSeries candidate = island;
+                if (incoming != null) {
+                    double scale = island.scaleOf(incoming);
+                    if (Double.isNaN(scale)) {
+                        continue;
+                    }
+                    //겹치는 날짜는 저장된 값을 쓴다
+                    candidate = StoredSeries.merge(List.of(incoming.scaled(scale), island), groupCount);
+                }
+                if (!candidate.covers(from, to)) {
+                    continue;
+                }
+
+                if (incoming != null) {
+                    stitchCount.incrementAndGet();
+                }
+                lastAccess.put(file.getFileName().toString(), clock.millis());
+                hitCount.incrementAndGet();
+                return candidate.toTrendChart(trendQuery.getKeywords(), from, to);
+            }
+
+            missCount.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            missCount.incrementAndGet();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 요청 기간 중 저장되지 않은 구간만 받아 오기 위한 요청 목록을 만든다.
+     * 각 구간은 저장된 쪽으로 ANCHOR_DAYS 만큼 넓혀서, 받아 온 값을 저장된 값과 같은 기준으로 맞출 수 있게 한다.
+     * 저장된 값이 없거나 기간 전체가 비어 있어서 나눠 받을 이유가 없으면 null.
+     */
+    public List<TrendQuery> plan(TrendQuery trendQuery) {
+        if (!supports(trendQuery)) {
+            return null;
+        }
+
+        String fingerprint = trendQuery.fingerprint();
+        int from = (int) trendQuery.getStartDate().toEpochDay();
+        int to = (int) trendQuery.getEndDate().toEpochDay();
+        int today = (int) LocalDate.now(clock).toEpochDay();
+
+        StoredFile stored;
+        ReentrantLock lock = lock(fingerprint);
+        lock.lock();
+        try {
+            stored = load(file(fingerprint), trendQuery.getKeywords().size());
+        } catch (IOException e) {
+            return null;
+        } finally {
+            lock.unlock();
+        }
+
+        if (stored == null) {
+            return null;
+        }
+
+        //기준이 다른 island 의 날짜도 다시 받지 않는다. 둘 사이를 받으면 양쪽 anchor 로 write 에서 하나로 합쳐진다
+        int[] coverage = StoredSeries.mergeCoverage(stored.islands.values());
+
+        //오늘 이후는 저장하지 않으므로 항상 빠진 구간이다
+        int[] gaps = StoredSeries.gaps(coverage, from, Math.min(to, today - 1));
+        List<int[]> missing = new ArrayList<>();
+        for (int i = 0; i < gaps.length; i += 2) {
+            missing.add(new int[]{gaps[i], gaps[i + 1]});
+        }
+        if (to >= today) {
+            int tailFrom = Math.max(from, today);
+            int[] last = missing.isEmpty() ? null : missing.get(missing.size() - 1);
+            if (last != null && last[1] + 1 >= tailFrom) {
+                last[1] = to;
+            } else {
+                missing.add(new int[]{tailFrom, to});
+            }
+        }
+
+        if (missing.isEmpty() || (missing.size() == 1 && missing.get(0)[0] == from && missing.get(0)[1] == to)) {
+            return null;
+        }
+
+        List<TrendQuery> parts = new ArrayList<>();
+        for (int[] range : missing) {
+            int partFrom = StoredSeries.covers(coverage, range[0] - 1) ? range[0] - ANCHOR_DAYS : range[0];
+            int partTo = StoredSeries.covers(coverage, range[1] + 1) ? range[1] + ANCHOR_DAYS : range[1];
+            parts.add(trendQuery.withRange(LocalDate.ofEpochDay(partFrom), LocalDate.ofEpochDay(partTo)));
+        }
+        return parts;
+    }
+
+    /**
+     * 응답 중 이미 끝난 날짜만 저장한다. 저장에 실패해도 조회 결과에는 영향이 없도록 예외를 밖으로 던지지 않는다.
+     */
+    public void write(TrendQuery trendQuery, TrendChart trendChart) {
+        if (!supports(trendQuery)) {
+            return;
+        }
+
+        int from = (int) trendQuery.getStartDate().toEpochDay();
+        int to = (int) Math.min(trendQuery.getEndDate().toEpochDay(), LocalDate.now(clock).toEpochDay() - 1);
+        if (from > to) {
+            return;
+        }
+
+        int groupCount = trendQuery.getKeywords().size();
+        StoredSeries incoming = StoredSeries.of(trendQuery.getKeywords(), trendChart, from, to);
+
+        String fingerprint = trendQuery.fingerprint();
+        Path file = file(fingerprint);
+
+        ReentrantLock lock = lock(fingerprint);
+        lock.lock();
+        try {
+            long before = Files.exists(file) ? Files.size(file) : 0;
+
+            StoredFile stored = load(file, groupCount);
+            if (stored == null) {
+                rewrite(file, groupCount, Map.of(0, incoming));
+            } else if (stored.islands.values().stream().anyMatch(island -> island.covers(from, to))) {
+                return;
+            } else {
+                store(file, groupCount, stored, incoming);
+            }
+            writeCount.incrementAndGet();
+            lastAccess.put(file.getFileName().toString(), clock.millis());
+
+            totalBytes.addAndGet(Files.size(file) - before);
+        } catch (IOException e) {
+            log.warn("트렌드 저장 실패 : {}", file, e);
+        } finally {
+            lock.unlock();
+        }
+
+        enforceBudget();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("bytes", totalBytes.get());
+        stats.put("maxBytes", maxBytes);
+        stats.put("hitCount", hitCount.get());
+        stats.put("missCount", missCount.get());
+        stats.put("stitchCount", stitchCount.get());
+        stats.put("writeCount", writeCount.get());
+        stats.put("islandCount", islandCount.get());
+        stats.put("joinCount", joinCount.get());
+        stats.put("compactionCount", compactionCount.get());
+        stats.put("deleteCount", deleteCount.get());
+        return stats;
+    }
+
+    private boolean supports(TrendQuery trendQuery) {
+        //주/월 단위는 조회 시작일에 따라 첫 구간이 잘리므로 일 단위만 보관한다
+        return enabled && "date".equals(trendQuery.getTimeUnit());
+    }
+
+    private Path file(String fingerprint) {
+        return directory.resolve(fingerprint + EXTENSION);
+    }
+
+    private ReentrantLock lock(String fingerprint) {
+        return locks[Math.floorMod(fingerprint.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * 저장된 값과 겹치는 island 를 찾아서 그 기준으로 incoming 을 덧붙인다.
+     */
+    private void store(Path file, int groupCount, StoredFile stored, StoredSeries incoming) throws IOException {
+        Map<Integer, StoredSeries> islands = stored.islands;
+        List<Integer> connected = new ArrayList<>();
+        double scale = Double.NaN;
+        for (Map.Entry<Integer, StoredSeries> entry : islands.entrySet()) {
+            double islandScale = entry.getValue().scaleOf(incoming);
+            if (Double.isNaN(islandScale)) {
+                continue;
+            }
+            if (connected.isEmpty()) {
+                scale = islandScale;
+            }
+            connected.add(entry.getKey());
+        }
+
+        if (connected.isEmpty()) {
+            //겹치는 날이 없으면 기준을 맞출 수 없으므로 기존 값은 두고 따로 보관한다
+            append(file, stored.length, incoming.encode(Collections.max(islands.keySet()) + 1));
+            islandCount.incrementAndGet();
+            return;
+        }
+
+        StoredSeries scaled = incoming.scaled(scale);
+        int target = connected.get(0);
+        if (connected.size() == 1) {
+            append(file, stored.length, scaled.without(islands.get(target)).encode(target));
+            if (segmentCount(islands) + 1 - islands.size() >= compactSegments) {
+                rewrite(file, groupCount, load(file, groupCount).islands);
+                compactionCount.incrementAndGet();
+            }
+            return;
+        }
+
+        //여러 island 에 걸치면 나머지 island 도 incoming 을 거쳐 target 기준으로 맞춘다 (겹치는 날짜는 target 값을 쓴다)
+        List<Integer> others = connected.subList(1, connected.size());
+        List<StoredSeries> parts = new ArrayList<>();
+        parts.add(scaled);
+        for (int island : others) {
+            StoredSeries other = islands.get(island);
+            parts.add(other.scaled(scaled.scaleOf(other)));
+        }
+        parts.add(islands.get(target));
+
+        Map<Integer, StoredSeries> joined = new LinkedHashMap<>(islands);
+        others.forEach(joined::remove);
+        joined.put(target, StoredSeries.merge(parts, groupCount));
+        rewrite(file, groupCount, joined);
+        joinCount.incrementAndGet();
+    }
+
+    private static int segmentCount(Map<Integer, StoredSeries> islands) {
+        int count = 0;
+        for (StoredSeries island : islands.values()) {
+            count += island.segments;
+        }
+        return count;
+    }
+
+    /**
+     * 파일을 메모리 매핑해서 island 번호별로 읽는다. 마지막 세그먼트가 덜 써진 경우(쓰는 도중 종료 등)는 그 앞까지만 읽고,
+     * 다음에 덧붙일 때 그 뒤를 잘라낸다.
+     * 세그먼트 값은 힙으로 복사하지 않고 매핑된 영역을 가리키는 view 로 읽으므로,
+     * island 의 세그먼트가 하나뿐이면(압축 직후 등) 요청 기간만큼만 꺼내서 결과를 만든다.
+     */
+    private StoredFile load(Path file, int groupCount) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != groupCount) {
+                return null;
+            }
+
+            Map<Integer, List<StoredSeries>> segments = new LinkedHashMap<>();
+            int length = buffer.position();
+            while (buffer.remaining() >= SEGMENT_HEADER_BYTES) {
+                int island = buffer.getInt();
+                int rangeCount = buffer.getInt();
+                if (rangeCount <= 0 || buffer.remaining() < rangeCount * 8L + 4) {
+                    break;
+                }
+                int[] coverage = new int[rangeCount * 2];
+                slice(buffer, rangeCount * 8).asIntBuffer().get(coverage);
+
+                int count = buffer.getInt();
+                if (count < 0 || buffer.remaining() < (long) count * (4 + 8L * groupCount)) {
+                    break;
+                }
+
+                IntBuffer days = slice(buffer, count * 4).asIntBuffer();
+                DoubleBuffer[] ratios = new DoubleBuffer[groupCount];
+                for (int g = 0; g < groupCount; g++) {
+                    ratios[g] = slice(buffer, count * 8).asDoubleBuffer();
+                }
+
+                segments.computeIfAbsent(island, key -> new ArrayList<>()).add(new StoredSeries(days, ratios, coverage, 1));
+                length = buffer.position();
+            }
+
+            if (segments.isEmpty()) {
+                return null;
+            }
+
+            Map<Integer, StoredSeries> islands = new LinkedHashMap<>();
+            segments.forEach((island, list) -> islands.put(island, StoredSeries.merge(list, groupCount)));
+            return new StoredFile(islands, length);
+        }
+    }
+
+    /**
+     * buffer 의 현재 위치부터 length 바이트를 가리키는 view 를 만들고 위치를 그만큼 옮긴다.
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    /**
+     * length(끝까지 읽힌 세그먼트의 끝) 뒤에 덧붙인다. 그 뒤에 덜 써진 세그먼트가 남아 있으면 잘라낸다.
+     */
+    private void append(Path file, long length, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            channel.position(length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * island 마다 세그먼트 하나로 쓴다. 임시 파일에 쓰고 이름을 바꿔서, 쓰는 도중에 읽는 쪽이 깨진 파일을 보지 않게 한다.
+     */
+    private void rewrite(Path file, int groupCount, Map<Integer, StoredSeries> islands) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(groupCount).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (Map.Entry<Integer, StoredSeries> entry : islands.entrySet()) {
+                ByteBuffer buffer = entry.getValue().encode(entry.getKey());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 디렉터리 크기가 한도를 넘으면 가장 오래 사용하지 않은 파일부터 지워서 한도의 90% 아래로 맞춘다.
+     * 시작한 뒤로 읽거나 쓰지 않은 파일은 파일 수정 시각(마지막으로 쓴 시각)을 사용 시각으로 본다.
+     */
+    private void enforceBudget() {
+        if (totalBytes.get() <= maxBytes || !budgetLock.tryLock()) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> candidates = files
+                    .filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparingLong(this::lastUsed))
+                    .toList();
+
+            long target = maxBytes / 10 * 9;
+            for (Path candidate : candidates) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                String name = candidate.getFileName().toString();
+                ReentrantLock lock = lock(name.substring(0, name.length() - EXTENSION.length()));
+                lock.lock();
+                try {
+                    long size = Files.size(candidate);
+                    if (Files.deleteIfExists(candidate)) {
+                        lastAccess.remove(name);
+                        totalBytes.addAndGet(-size);
+                        deleteCount.incrementAndGet();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("트렌드 저장소 정리 실패 : {}", directory, e);
+        } finally {
+            budgetLock.unlock();
+        }
+    }
+
+    private long lastUsed(Path path) {
+        Long accessed = lastAccess.get(path.getFileName().toString());
+        if (accessed != null) {
+            return accessed;
+        }
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private long directorySize() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .mapToLong(path -> path.toFile().length())
+                    .sum();
+        }
+    }
+
+    /**
+     * 파일에서 읽은 island 번호별 값과, 끝까지 읽힌 마지막 세그먼트의 끝 위치
+     */
+    private static class StoredFile {
+        private final Map<Integer, StoredSeries> islands;
+        private final long length;
+
+        private StoredFile(Map<Integer, StoredSeries> islands, long length) {
+            this.islands = islands;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 한 기준으로 맞춘, 날짜 오름차순으로 정렬된 일별 값(검색어별 한 열씩)과 저장된 기간 목록.
+     * 값은 파일을 매핑한 영역의 view 이거나 힙 배열을 감싼 버퍼이고, 위치(position)는 옮기지 않고 index 로만 읽는다.
+     */
+    private static class StoredSeries {
+        private final IntBuffer days;
+        private final DoubleBuffer[] ratios;
+        //[from, to] 쌍을 시작일 순으로 이어 붙인 배열 (서로 겹치거나 맞닿은 구간은 합쳐져 있다)
+        private final int[] coverage;
+        private final int segments;
+
+        private StoredSeries(IntBuffer days, DoubleBuffer[] ratios, int[] coverage, int segments) {
+            this.days = days;
+            this.ratios = ratios;
+            this.coverage = coverage;
+            this.segments = segments;
+        }
+
+        private StoredSeries(int[] days, double[][] ratios, int[] coverage, int segments) {
+            this(IntBuffer.wrap(days), wrap(ratios), coverage, segments);
+        }
+
+        private static DoubleBuffer[] wrap(double[][] ratios) {
+            DoubleBuffer[] wrapped = new DoubleBuffer[ratios.length];
+            for (int g = 0; g < ratios.length; g++) {
+                wrapped[g] = DoubleBuffer.wrap(ratios[g]);
+            }
+            return wrapped;
+        }
+
+        private int rows() {
+            return days.limit();
+        }
+
+        private static StoredSeries of(List<String> keywords, TrendChart trendChart, int from, int to) {
+            int groupCount = keywords.size();
+            int length = to - from + 1;
+            double[][] dense = new double[groupCount][length];
+            boolean[] present = new boolean[length];
+            for (double[] column : dense) {
+                Arrays.fill(column, Double.NaN);
+            }
+
+            int[] period = trendChart.getPeriod();
+            List<String> chartKeywords = trendChart.getKeywords();
+            for (int k = 0; k < chartKeywords.size(); k++) {
+                int g = keywords.indexOf(chartKeywords.get(k));
+                if (g < 0) {
+                    continue;
+                }
+                double[] ratio = trendChart.getRatio(k);
+                for (int i = 0; i < period.length; i++) {
+                    int day = period[i];
+                    if (day < from || day > to || Double.isNaN(ratio[i])) {
+                        continue;
+                    }
+                    dense[g][day - from] = ratio[i];
+                    present[day - from] = true;
+                }
+            }
+
+            int count = 0;
+            for (boolean p : present) {
+                if (p) {
+                    count++;
+                }
+            }
+
+            int[] days = new int[count];
+            double[][] ratios = new double[groupCount][count];
+            int row = 0;
+            for (int i = 0; i < length; i++) {
+                if (!present[i]) {
+                    continue;
+                }
+                days[row] = from + i;
+                for (int g = 0; g < groupCount; g++) {
+                    ratios[g][row] = dense[g][i];
+                }
+                row++;
+            }
+
+            return new StoredSeries(days, ratios, new int[]{from, to}, 1);
+        }
+
+        /**
+         * 세그먼트들을 날짜 기준으로 합친다. 같은 날짜가 여러 번 있으면 나중에 쓴 세그먼트 값을 쓴다.
+         */
+        private static StoredSeries merge(List<StoredSeries> segments, int groupCount) {
+            if (segments.size() == 1) {
+                return segments.get(0);
+            }
+
+            int total = 0;
+            for (StoredSeries segment : segments) {
+                total += segment.rows();
+            }
+
+            //상위 32비트 = 날짜, 하위 32비트 = 전체에서의 행 번호 -> 정렬하면 날짜순, 같은 날짜는 나중 행이 뒤로 온다
+            long[] keys = new long[total];
+            int[] segmentOf = new int[total];
+            int[] rowOf = new int[total];
+            int index = 0;
+            for (int s = 0; s < segments.size(); s++) {
+                IntBuffer segmentDays = segments.get(s).days;
+                for (int r = 0; r < segmentDays.limit(); r++) {
+                    keys[index] = ((long) segmentDays.get(r) << 32) | index;
+                    segmentOf[index] = s;
+                    rowOf[index] = r;
+                    index++;
+                }
+            }
+            Arrays.sort(keys);
+
+            int[] days = new int[total];
+            double[][] ratios = new double[groupCount][total];
+            int count = 0;
+            for (int i = 0; i < total; i++) {
+                int day = (int) (keys[i] >> 32);
+                if (i + 1 < total && (int) (keys[i + 1] >> 32) == day) {
+                    continue;
+                }
+                int source = (int) keys[i];
+                StoredSeries segment = segments.get(segmentOf[source]);
+                days[count] = day;
+                for (int g = 0; g < groupCount; g++) {
+                    ratios[g][count] = segment.ratios[g].get(rowOf[source]);
+                }
+                count++;
+            }
+
+            double[][] trimmed = new double[groupCount][];
+            for (int g = 0; g < groupCount; g++) {
+                trimmed[g] = Arrays.copyOf(ratios[g], count);
+            }
+
+            int merged = 0;
+            for (StoredSeries segment : segments) {
+                merged += segment.segments;
+            }
+            return new StoredSeries(Arrays.copyOf(days, count), trimmed, mergeCoverage(segments), merged);
+        }
+
+        private static int[] mergeCoverage(Collection<StoredSeries> segments) {
+            List<int[]> ranges = new ArrayList<>();
+            for (StoredSeries segment : segments) {
+                for (int i = 0; i < segment.coverage.length; i += 2) {
+                    ranges.add(new int[]{segment.coverage[i], segment.coverage[i + 1]});
+                }
+            }
+            ranges.sort(Comparator.comparingInt(range -> range[0]));
+
+            List<int[]> merged = new ArrayList<>();
+            for (int[] range : ranges) {
+                int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && range[0] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(range);
+                }
+            }
+
+            int[] coverage = new int[merged.size() * 2];
+            for (int i = 0; i < merged.size(); i++) {
+                coverage[i * 2] = merged.get(i)[0];
+                coverage[i * 2 + 1] = merged.get(i)[1];
+            }
+            return coverage;
+        }
+
+        private boolean covers(int from, int to) {
+            for (int i = 0; i < coverage.length; i += 2) {
+                if (coverage[i] <= from && to <= coverage[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean covers(int[] coverage, int day) {
+            for (int i = 0; i < coverage.length; i += 2) {
+                if (coverage[i] <= day && day <= coverage[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * from ~ to 중 coverage 에 들어가지 않는 구간들 ([from, to] 쌍을 이어 붙인 배열)
+         */
+        private static int[] gaps(int[] coverage, int from, int to) {
+            List<Integer> result = new ArrayList<>();
+            int cursor = from;
+            for (int i = 0; i < coverage.length && cursor <= to; i += 2) {
+                if (coverage[i + 1] < cursor) {
+                    continue;
+                }
+                if (coverage[i] > cursor) {
+                    result.add(cursor);
+                    result.add(Math.min(to, coverage[i] - 1));
+                }
+                cursor = Math.max(cursor, coverage[i + 1] + 1);
+            }
+            if (cursor <= to) {
+                result.add(cursor);
+                result.add(to);
+            }
+            return result.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * 겹치는 날짜의 값 합으로 incoming 을 이 데이터 기준에 맞추는 배율. 맞출 수 없으면 NaN.
+         */
+        private double scaleOf(StoredSeries incoming) {
+            double storedSum = 0;
+            double incomingSum = 0;
+            for (int r = 0; r < incoming.rows(); r++) {
+                int day = incoming.days.get(r);
+                int row = lowerBound(day);
+                if (row == rows() || days.get(row) != day) {
+                    continue;
+                }
+                for (int g = 0; g < ratios.length; g++) {
+                    double storedValue = ratios[g].get(row);
+                    double incomingValue = incoming.ratios[g].get(r);
+                    if (!Double.isNaN(storedValue) && !Double.isNaN(incomingValue)) {
+                        storedSum += storedValue;
+                        incomingSum += incomingValue;
+                    }
+                }
+            }
+            return storedSum > 0 && incomingSum > 0 ? storedSum / incomingSum : Double.NaN;
+        }
+
+        /**
+         * 값에 factor 를 곱한 힙 복사본. 매핑된 파일 영역은 읽기 전용이라 그 자리에서 바꾸지 않는다.
+         */
+        private StoredSeries scaled(double factor) {
+            int[] copiedDays = new int[rows()];
+            days.get(0, copiedDays);
+            double[][] copiedRatios = new double[ratios.length][rows()];
+            for (int g = 0; g < ratios.length; g++) {
+                for (int i = 0; i < rows(); i++) {
+                    copiedRatios[g][i] = ratios[g].get(i) * factor;
+                }
+            }
+            return new StoredSeries(copiedDays, copiedRatios, coverage, segments);
+        }
+
+        /**
+         * stored 에 이미 저장된 기간의 행을 뺀 세그먼트 (저장 기간 정보는 그대로 둔다)
+         */
+        private StoredSeries without(StoredSeries stored) {
+            int count = 0;
+            int[] keep = new int[rows()];
+            for (int r = 0; r < rows(); r++) {
+                if (!stored.covers(days.get(r), days.get(r))) {
+                    keep[count++] = r;
+                }
+            }
+
+            int[] keptDays = new int[count];
+            double[][] keptRatios = new double[ratios.length][count];
+            for (int i = 0; i < count; i++) {
+                keptDays[i] = days.get(keep[i]);
+                for (int g = 0; g < ratios.length; g++) {
+                    keptRatios[g][i] = ratios[g].get(keep[i]);
+                }
+            }
+            return new StoredSeries(keptDays, keptRatios, coverage, 1);
+        }
+
+        /**
+         * 기간 목록을 모두 담은 세그먼트 하나로 만든다.
+         */
+        private ByteBuffer encode(int island) {
+            int count = rows();
+            ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_HEADER_BYTES + coverage.length * 4 + 4
+                    + count * 4 + count * 8 * ratios.length);
+            buffer.putInt(island).putInt(coverage.length / 2);
+            for (int day : coverage) {
+                buffer.putInt(day);
+            }
+            buffer.putInt(count);
+            buffer.asIntBuffer().put(days.duplicate());
+            buffer.position(buffer.position() + count * 4);
+            for (DoubleBuffer column : ratios) {
+                buffer.asDoubleBuffer().put(column.duplicate());
+                buffer.position(buffer.position() + count * 8);
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        /**
+         * from ~ to 구간을 잘라서, 구간 안의 최댓값이 100 이 되도록 맞춘 결과
+         */
+        private TrendChart toTrendChart(List<String> keywords, int from, int to) {
+            int start = lowerBound(from);
+            int end = lowerBound(to + 1);
+
+            double max = 0;
+            for (DoubleBuffer column : ratios) {
+                for (int i = start; i < end; i++) {
+                    double value = column.get(i);
+                    if (!Double.isNaN(value)) {
+                        max = Math.max(max, value);
+                    }
+                }
+            }
+            double factor = max > 0 ? 100 / max : 1;
+
+            double[][] ratio = new double[keywords.size()][end - start];
+            for (int g = 0; g < keywords.size(); g++) {
+                for (int i = start; i < end; i++) {
+                    ratio[g][i - start] = ratios[g].get(i) * factor;
+                }
+            }
+            int[] period = new int[end - start];
+            days.get(start, period);
+            return TrendChart.of(period, keywords, ratio);
+        }
+
+        /**
+         * day 보다 작지 않은 첫 행 (없으면 rows())
+         */
+        private int lowerBound(int day) {
+            int low = 0;
+            int high = rows();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (days.get(mid) < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 네이버 데이터랩 검색어 트렌드 API 연결 설정 (application.yml 의 datalab.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "datalab")
+public class DatalabProperties {
+
+    private String url = "https://openapi.naver.com/v1/datalab/search";
+    private String clientId;
+    private String clientSecret;
+
+    /**
+     * TCP/TLS 연결을 맺을 때까지 기다리는 시간
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 요청 한 건의 전체 제한 시간 (응답 본문을 다 받을 때까지)
+     */
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 동시에 진행할 수 있는 최대 요청 수
+     */
+    private int maxInFlight = 16;
+
+    /**
+     * 동시 요청 한도에 걸렸을 때 자리를 기다리는 시간. 넘으면 바로 실패한다.
+     */
+    private Duration acquireTimeout = Duration.ofMillis(500);
+
+    /**
+     * 검색 한 번(여러 요청을 동시에 보낸 전체)의 제한 시간. 넘으면 끝난 결과만 돌려준다.
+     */
+    private Duration searchTimeout = Duration.ofSeconds(8);
+
+    /**
+     * 요청을 동시에 보내는 스레드 수와 대기열 크기.
+     * 검색어 묶음별로 결과를 기다리는 풀과 실제 조회를 실행하는 풀(TrendSingleFlight)에 각각 같은 크기로 쓴다.
+     */
+    private int fanOutThreads = 16;
+    private int fanOutQueue = 64;
+
+    /**
+     * 화면에 보낼 검색어당 최대 점 개수. 요청에 points 가 없으면 이 값으로 줄인다. (0 이면 줄이지 않는다)
+     */
+    private int chartPoints = 600;
+
+    /**
+     * 유효 시간이 지난 캐시 값이 있을 때 새 값을 기다리는 최대 시간.
+     * 넘으면 지난 값을 stale 로 표시해서 먼저 응답하고, 새 값은 백그라운드에서 계속 받아 캐시에 담는다.
+     */
+    private Duration staleWait = Duration.ofSeconds(1);
+
+    private Cache cache = new Cache();
+
+    private Store store = new Store();
+
+    private Quota quota = new Quota();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class Cache {
+
+        /**
+         * 캐시에 담을 수 있는 응답의 추정 크기 합계
+         */
+        private long maxBytes = 64L * 1024 * 1024;
+
+        /**
+         * 오늘까지 걸친 기간처럼 값이 아직 바뀔 수 있는 응답의 유효 시간
+         */
+        private Duration recentTtl = Duration.ofMinutes(10);
+
+        /**
+         * 이미 지난 기간만 조회한 응답의 유효 시간
+         */
+        private Duration historicalTtl = Duration.ofHours(24);
+
+        /**
+         * 유효 시간이 지난 뒤에도 API 장애 시 대신 보여줄 수 있도록 남겨 두는 시간
+         */
+        private Duration staleTtl = Duration.ofDays(7);
+    }
+
+    @Data
+    public static class Store {
+
+        private boolean enabled = true;
+
+        /**
+         * 지난 기간의 일별 트렌드를 보관하는 디렉터리
+         */
+        private String path = "./data/trend";
+
+        /**
+         * 디렉터리 전체 크기 한도. 넘으면 오래 사용하지 않은 파일부터 지운다.
+         */
+        private long maxBytes = 256L * 1024 * 1024;
+
+        /**
+         * 마지막 압축 뒤로 한 파일에 덧붙인 세그먼트가 이 개수가 되면 island(같은 기준으로 맞춘 값)마다 세그먼트 하나로 합친다
+         */
+        private int compactSegments = 8;
+    }
+
+    @Data
+    public static class Quota {
+
+        /**
+         * 하루 호출 한도 (데이터랩 검색어 트렌드 API 기본 한도는 1,000회)
+         */
+        private long dailyLimit = 1000;
+
+        /**
+         * 백그라운드 갱신(지난 값을 보여줄 수 있을 때 다시 받는 요청)이 쓰지 않고 화면 검색용으로 남겨 두는 호출 수
+         */
+        private long backgroundReserve = 200;
+
+        /**
+         * 자리를 기다리는 요청의 최대 개수. 넘으면 기다리지 않고 바로 실패한다.
+         */
+        private int maxQueue = 64;
+
+        /**
+         * 한도가 초기화되는 자정의 기준 시간대
+         */
+        private String zone = "Asia/Seoul";
+    }
+
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * 최근 몇 건의 호출 결과로 실패율을 계산할지
+         */
+        private int windowSize = 20;
+
+        /**
+         * 실패율을 계산하기 위한 최소 호출 수
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * 실패(느린 호출 포함) 비율이 이 값(%) 이상이면 차단한다
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 이 시간보다 오래 걸린 호출은 실패로 센다
+         */
+        private Duration slowCallThreshold = Duration.ofSeconds(3);
+
+        /**
+         * 차단한 뒤 다시 시험 호출을 허용하기까지의 시간
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * 시험(half-open) 상태에서 허용하는 호출 수. 모두 성공하면 차단을 푼다.
+         */
+        private int halfOpenCalls = 2;
+    }
+}
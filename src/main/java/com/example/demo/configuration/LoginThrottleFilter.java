@@ -0,0 +1,50 @@
+package com.example.demo.configuration;
+
+import com.example.demo.components.LoginThrottle;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 로그인 요청(POST /)을 UsernamePasswordAuthenticationFilter 보다 먼저 받아서 LoginThrottle 한도를 확인한다.
+ * 한도를 넘으면 회원 조회/비밀번호 검증 없이 로그인 실패와 같은 방법으로 돌려보낸다.
+ * 실패 횟수는 UserAuthenticationFailureHandler 가 세고, 여기서 거절한 시도는 세지 않는다.
+ * (프록시 뒤에서는 server.forward-headers-strategy 를 켜야 getRemoteAddr 가 실제 접속 주소가 된다)
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottle loginThrottle;
+    private final AuthenticationFailureHandler failureHandler;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle, AuthenticationFailureHandler failureHandler) {
+        this.loginThrottle = loginThrottle;
+        this.failureHandler = failureHandler;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && "/".equals(request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+
+        String username = request.getParameter("username");
+        String address = request.getRemoteAddr();
+        if (loginThrottle.isAllowed(username, address)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getRetryAfterSeconds(username, address)));
+        failureHandler.onAuthenticationFailure(request, response,
+                new AuthenticationServiceException("로그인 시도가 너무 많습니다. 잠시 후 다시 시도해주세요."));
+    }
+}
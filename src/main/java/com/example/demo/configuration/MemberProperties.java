@@ -0,0 +1,168 @@
+package com.example.demo.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 회원/로그인 관련 설정 (application.yml 의 member.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "member")
+public class MemberProperties {
+
+    private UserCache userCache = new UserCache();
+
+    private Password password = new Password();
+
+    private Login login = new Login();
+
+    private Mail mail = new Mail();
+
+    private Token token = new Token();
+
+    @Data
+    public static class UserCache {
+
+        /**
+         * 캐시에 담아 둘 최대 회원 수. 넘으면 가장 오래 사용되지 않은 회원부터 제거한다.
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * 담은 뒤 이 시간이 지나면 DB 에서 다시 읽는다.
+         * 가입, 비밀번호 초기화, 이메일 인증은 바로 지우므로 다른 경로(DB 직접 수정 등)로 바뀐 값만 이 시간만큼 늦게 반영된다.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * 담은 값을 꺼낼 때 마지막으로 DB 의 credentials_version 을 확인한 지 이 시간이 지났으면 다시 확인한다.
+         * 다른 서버에서 바꾼 비밀번호/권한은 최대 이 시간만큼 늦게 반영된다.
+         */
+        private Duration recheck = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Password {
+
+        /**
+         * BCrypt cost. 0 이면 시작할 때 targetHashTime 에 맞춰 고른다.
+         */
+        private int strength = 0;
+
+        /**
+         * 해시 한 번에 걸리게 할 목표 시간 (strength 를 자동으로 고를 때 사용)
+         */
+        private Duration targetHashTime = Duration.ofMillis(250);
+
+        /**
+         * 해시/검증을 실행하는 스레드 수. 0 이면 CPU 코어 수의 절반
+         */
+        private int threads = 0;
+
+        /**
+         * 스레드를 기다리는 요청의 최대 개수. 넘으면 기다리지 않고 바로 실패한다.
+         */
+        private int queue = 32;
+
+        /**
+         * 대기와 해시를 합친 최대 시간
+         */
+        private Duration maxWait = Duration.ofSeconds(3);
+    }
+
+    @Data
+    public static class Login {
+
+        /**
+         * 실패 수를 세는 구간
+         */
+        private Duration window = Duration.ofMinutes(1);
+
+        /**
+         * 구간 동안 아이디 하나로 로그인에 실패할 수 있는 횟수. 넘으면 구간이 지날 때까지 시도를 거절한다.
+         */
+        private int maxAttemptsPerUsername = 10;
+
+        /**
+         * 구간 동안 접속 주소 하나에서 로그인에 실패할 수 있는 횟수
+         */
+        private int maxAttemptsPerAddress = 100;
+
+        /**
+         * 기억할 아이디/주소의 최대 개수. 넘으면 가장 오래 사용되지 않은 것부터 지운다.
+         */
+        private int maxKeys = 100_000;
+    }
+
+    @Data
+    public static class Mail {
+
+        /**
+         * 보내는 사람 주소. 비어 있으면 spring.mail.username 을 SMTP 서버가 채운다.
+         */
+        private String from;
+
+        /**
+         * 메일 속 링크의 앞부분 (가입 완료, 비밀번호 초기화 화면). 서버 주소가 바뀌면 여기만 바꾼다.
+         */
+        private String baseUrl = "http://localhost:8080";
+
+        /**
+         * 메일을 보내는 스레드 수. 스레드마다 따로 배치를 가져가서 보낸다.
+         */
+        private int workers = 1;
+
+        /**
+         * 한 번의 SMTP 연결로 보내는 최대 메일 수
+         */
+        private int batchSize = 20;
+
+        /**
+         * 보낼 메일이 없을 때 다시 확인하는 간격
+         */
+        private Duration pollInterval = Duration.ofSeconds(2);
+
+        /**
+         * 이 횟수만큼 실패하면 더 보내지 않고 DEAD 로 남긴다.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * 첫 실패 뒤 기다리는 시간. 실패할 때마다 두 배로 늘린다.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * 워커가 가져간 메일을 다른 워커가 가져가지 못하는 시간. 보내다가 서버가 죽으면 이 시간 뒤에 다시 보낸다.
+         */
+        private Duration lease = Duration.ofMinutes(2);
+    }
+
+    @Data
+    public static class Token {
+
+        /**
+         * 가입 인증 메일 링크의 유효 시간
+         */
+        private Duration emailAuthTtl = Duration.ofDays(7);
+
+        /**
+         * 비밀번호 초기화 메일 링크의 유효 시간
+         */
+        private Duration resetPasswordTtl = Duration.ofDays(1);
+
+        /**
+         * 만료된 키를 지우는 간격
+         */
+        private Duration sweepInterval = Duration.ofMinutes(10);
+
+        /**
+         * 한 번에 지우는 최대 행 수. 지울 행이 많으면 이만큼씩 나눠서 지운다.
+         */
+        private int sweepBatchSize = 500;
+    }
+}
@@ -1,16 +1,19 @@
 package com.example.demo.configuration;
 
+import com.example.demo.components.BoundedPasswordEncoder;
+import com.example.demo.components.LoginThrottle;
+import com.example.demo.components.MemberUserCache;
 import com.example.demo.member.service.MemberService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @RequiredArgsConstructor
@@ -19,15 +22,25 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 public class SecurityConfiguration{
 
     private final MemberService memberService;
+    private final MemberUserCache memberUserCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
 
+    /**
+     * 로그인할 때마다 회원을 DB 에서 읽지 않도록 UserCache 를 둔다.
+     */
     @Bean
-    public PasswordEncoder getPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DaoAuthenticationProvider authenticationProvider() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(memberService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserCache(memberUserCache);
+        return provider;
     }
 
     @Bean
     UserAuthenticationFailureHandler getFailureHandler() {
-        return new UserAuthenticationFailureHandler();
+        return new UserAuthenticationFailureHandler(loginThrottle);
     }
 
     @Bean
@@ -35,6 +48,9 @@ public class SecurityConfiguration{
 
         http.csrf(csrf -> csrf.disable());
 
+        //한도를 넘은 로그인 시도는 회원 조회/비밀번호 검증 전에 거절한다
+        http.addFilterBefore(new LoginThrottleFilter(loginThrottle, getFailureHandler()), UsernamePasswordAuthenticationFilter.class);
+
         http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
@@ -69,7 +85,7 @@ public class SecurityConfiguration{
     protected AuthenticationManager configure(AuthenticationManagerBuilder auth) throws Exception {
 
         auth.userDetailsService(memberService)
-                .passwordEncoder(getPasswordEncoder());
+                .passwordEncoder(passwordEncoder);
 
         return auth.build();
     }
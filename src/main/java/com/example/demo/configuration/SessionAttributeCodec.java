@@ -0,0 +1,196 @@
+package com.example.demo.configuration;
+
+import com.example.demo.member.model.MemberUser;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 세션 속성을 DB 에 저장할 때 쓰는 바이너리 형식.
+ * 모든 세션에 들어 있는 로그인 정보(SecurityContext)와 문자열/숫자는 첫 바이트(TAG_*)와 값만 쓰고,
+ * 그 밖의 값은 자바 직렬화로 저장한다. 자바 직렬화는 클래스 설명까지 쓰므로 SecurityContext 하나가 1KB 를 넘는다.
+ */
+public final class SessionAttributeCodec {
+
+    private static final byte TAG_JAVA = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_BOOLEAN = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_SECURITY_CONTEXT = 5;
+
+    private static final SerializingConverter SERIALIZER = new SerializingConverter();
+    private static final DeserializingConverter DESERIALIZER = new DeserializingConverter();
+
+    private SessionAttributeCodec() {
+    }
+
+    public static byte[] encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value instanceof String string) {
+                out.writeByte(TAG_STRING);
+                writeString(out, string);
+            } else if (value instanceof Boolean bool) {
+                out.writeByte(TAG_BOOLEAN);
+                out.writeBoolean(bool);
+            } else if (value instanceof Integer integer) {
+                out.writeByte(TAG_INTEGER);
+                out.writeInt(integer);
+            } else if (value instanceof Long number) {
+                out.writeByte(TAG_LONG);
+                out.writeLong(number);
+            } else if (isCompactSecurityContext(value)) {
+                out.writeByte(TAG_SECURITY_CONTEXT);
+                writeSecurityContext(out, (SecurityContext) value);
+            } else {
+                out.writeByte(TAG_JAVA);
+                out.write(SERIALIZER.convert(value));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Object decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case TAG_STRING -> readString(in);
+                case TAG_BOOLEAN -> in.readBoolean();
+                case TAG_INTEGER -> in.readInt();
+                case TAG_LONG -> in.readLong();
+                case TAG_SECURITY_CONTEXT -> readSecurityContext(in);
+                case TAG_JAVA -> DESERIALIZER.convert(in.readAllBytes());
+                default -> throw new IllegalArgumentException("알 수 없는 세션 속성 형식입니다. (" + tag + ")");
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 폼 로그인으로 만들어진 모양(User 또는 MemberUser + SimpleGrantedAuthority + WebAuthenticationDetails)만 줄여서 쓴다.
+     * (MemberUser 의 credentialsVersion 은 로그인 캐시에서만 쓰므로 읽을 때는 User 로 만든다)
+     */
+    private static boolean isCompactSecurityContext(Object value) {
+        if (value == null || value.getClass() != SecurityContextImpl.class) {
+            return false;
+        }
+        Authentication authentication = ((SecurityContext) value).getAuthentication();
+        if (authentication == null) {
+            return true;
+        }
+        if (authentication.getClass() != UsernamePasswordAuthenticationToken.class
+                || !authentication.isAuthenticated()
+                || authentication.getCredentials() != null
+                || authentication.getPrincipal() == null
+                || (authentication.getPrincipal().getClass() != User.class
+                    && authentication.getPrincipal().getClass() != MemberUser.class)) {
+            return false;
+        }
+        Object details = authentication.getDetails();
+        if (details != null && details.getClass() != WebAuthenticationDetails.class) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (authority.getClass() != SimpleGrantedAuthority.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeSecurityContext(DataOutputStream out, SecurityContext context) throws IOException {
+        Authentication authentication = context.getAuthentication();
+        out.writeBoolean(authentication != null);
+        if (authentication == null) {
+            return;
+        }
+
+        User user = (User) authentication.getPrincipal();
+        writeString(out, user.getUsername());
+        out.writeByte((user.isEnabled() ? 1 : 0)
+                | (user.isAccountNonExpired() ? 2 : 0)
+                | (user.isCredentialsNonExpired() ? 4 : 0)
+                | (user.isAccountNonLocked() ? 8 : 0));
+
+        out.writeShort(authentication.getAuthorities().size());
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            writeString(out, authority.getAuthority());
+        }
+
+        WebAuthenticationDetails details = (WebAuthenticationDetails) authentication.getDetails();
+        out.writeBoolean(details != null);
+        if (details != null) {
+            writeNullableString(out, details.getRemoteAddress());
+            writeNullableString(out, details.getSessionId());
+        }
+    }
+
+    private static SecurityContext readSecurityContext(DataInputStream in) throws IOException {
+        SecurityContextImpl context = new SecurityContextImpl();
+        if (!in.readBoolean()) {
+            return context;
+        }
+
+        String username = readString(in);
+        int flags = in.readByte();
+        int authorityCount = in.readUnsignedShort();
+        List<GrantedAuthority> authorities = new ArrayList<>(authorityCount);
+        for (int i = 0; i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority(readString(in)));
+        }
+
+        //로그인이 끝나면 비밀번호는 지워지므로 빈 값으로 만든다
+        User user = new User(username, "", (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0, authorities);
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, authorities);
+        if (in.readBoolean()) {
+            authentication.setDetails(new WebAuthenticationDetails(readNullableString(in), readNullableString(in)));
+        }
+        context.setAuthentication(authentication);
+        return context;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+
+/**
+ * 세션을 각 서버의 메모리 대신 DB(Spring Session JDBC)에 둔다.
+ * 서버를 늘리거나 다시 시작해도 로그인이 유지되고, 로드밸런서에 sticky session 이 필요 없다.
+ * <ul>
+ *     <li>저장소 : spring-session-jdbc 가 있으면 Spring Boot 가 JdbcIndexedSessionRepository 를 만든다.
+ *     다른 저장소(redis 등)로 바꿀 때는 의존성만 바꾸면 된다.</li>
+ *     <li>쓰기 : flush-mode=on-save 로 요청이 끝날 때 한 번에 쓰고, save-mode=on-set-attribute 로 바뀐 속성만 쓴다.</li>
+ *     <li>읽기 : 세션을 읽을 때 속성 값은 바이트로만 들고 있다가 getAttribute 할 때 변환한다.</li>
+ *     <li>형식 : SessionAttributeCodec</li>
+ * </ul>
+ * 세션 말고 서버마다 따로 두는 상태는 아래와 같다.
+ * <ul>
+ *     <li>MemberUserCache : recheck(기본 10초)마다 member.credentials_version 을 확인하므로 다른 서버에서 바꾼 비밀번호/권한은 그 안에 반영된다.</li>
+ *     <li>FavoriteCache : 즐겨찾기를 바꾼 서버만 바로 지우고, 다른 서버는 최대 30초 동안 바뀌기 전 목록을 보여줄 수 있다.</li>
+ *     <li>LoginThrottle : 서버마다 따로 센다. 서버가 N 대면 아이디/주소당 실패 한도도 최대 N 배가 된다.</li>
+ *     <li>DatalabScheduler : 일일 호출 한도를 서버마다 따로 센다. datalab.quota.daily-limit 은 전체 한도를 서버 수로 나눈 값으로 둔다.</li>
+ *     <li>TrendCache, TrendStore, TrendSingleFlight : 외부 API 결과라 서버마다 따로 담아도 결과는 같고, 처음 한 번씩 더 호출할 뿐이다.</li>
+ * </ul>
+ */
+@Configuration
+public class SessionConfiguration {
+
+    /**
+     * Spring Session JDBC 가 이 이름의 빈을 찾아서 속성 변환에 쓴다.
+     */
+    @Bean("springSessionConversionService")
+    public ConversionService springSessionConversionService() {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, SessionAttributeCodec::encode);
+        conversionService.addConverter(byte[].class, Object.class, SessionAttributeCodec::decode);
+        return conversionService;
+    }
+}
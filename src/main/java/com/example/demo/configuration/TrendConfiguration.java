@@ -0,0 +1,39 @@
+package com.example.demo.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class TrendConfiguration {
+
+    /**
+     * 캐시 만료, 오늘 날짜 판단 등에 사용하는 시계 (테스트에서는 고정된 시계로 바꿔 쓴다)
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    /**
+     * 데이터랩 요청을 동시에 보내는 스레드 풀.
+     * 대기열이 가득 차면 RejectedExecutionException 으로 바로 실패한다.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService trendExecutor(DatalabProperties properties) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getFanOutThreads(), properties.getFanOutThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getFanOutQueue()),
+                new CustomizableThreadFactory("trend-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
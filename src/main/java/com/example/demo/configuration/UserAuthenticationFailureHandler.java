@@ -1,8 +1,10 @@
 package com.example.demo.configuration;
 
+import com.example.demo.components.LoginThrottle;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 
@@ -10,12 +12,23 @@ import java.io.IOException;
 
 public class UserAuthenticationFailureHandler extends SimpleUrlAuthenticationFailureHandler {
 
+    private final LoginThrottle loginThrottle;
+
+    public UserAuthenticationFailureHandler(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
     //ctrl+o를 활용해 override
     @Override
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) throws IOException, ServletException {
 
+        //아이디/비밀번호가 틀린 경우만 센다 (없는 아이디도 BadCredentialsException 으로 온다)
+        if (exception instanceof BadCredentialsException) {
+            loginThrottle.recordFailure(request.getParameter("username"), request.getRemoteAddr());
+        }
+
         setDefaultFailureUrl("/");
 
         super.onAuthenticationFailure(request, response, exception);
     }
-}
\ No newline at end of file
+}
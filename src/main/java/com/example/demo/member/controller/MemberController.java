@@ -2,6 +2,7 @@ package com.example.demo.member.controller;
 
 import com.example.demo.member.model.MemberInput;
 import com.example.demo.member.model.ResetPasswordInput;
+import com.example.demo.member.model.TrendInput;
 import com.example.demo.member.service.MemberService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +14,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -80,61 +83,58 @@ public class MemberController {
                          @RequestParam(name = "device[]", required = false, defaultValue = "") String coverage,
                          @RequestParam(name = "gender[]", required = false, defaultValue = "") String gender,
                          @RequestParam(name = "age[]", required = false, defaultValue = "") String[] age,
+                         @RequestParam(name = "points", required = false, defaultValue = "0") int points,
                          Principal principal) throws JSONException {
 
-        List<String> query1XAxisData = memberService.apiResponseX(query1, year, month1, day1, year2, month2, day2, timeunit, coverage, gender,  age);
-        List<String> query1SeriesData = memberService.apiResponseY(query1, year, month1, day1, year2, month2, day2, timeunit, coverage, gender,  age);
+        TrendInput trendInput = TrendInput.builder()
+                .startDate(year + "-" + month1 + "-" + day1)
+                .endDate(year2 + "-" + month2 + "-" + day2)
+                .timeUnit(timeunit)
+                .device(coverage)
+                .gender(gender)
+                .ages(age)
+                .points(points)
+                .build();
+
+        //비어있지 않은 검색어를 모아 한 번에 요청한다
+        String[] queries = {query1, query2, query3, query4, query5};
+        List<String> searchQueries = new ArrayList<>();
+        for (String query : queries) {
+            if (!query.isEmpty()) {
+                searchQueries.add(query);
+            }
+        }
+
+        //트렌드 데이터는 화면을 그린 뒤 /api/trends 로 따로 받아 온다 (검색어가 없으면 빈 문자열)
+        model.addAttribute("trendUrl", searchQueries.isEmpty() ? "" : trendUrl("/api/trends", searchQueries, trendInput));
+        model.addAttribute("trendStreamUrl", searchQueries.isEmpty() ? "" : trendUrl("/api/trends/stream", searchQueries, trendInput));
 
-        model.addAttribute("xAxisData", query1XAxisData);
-        model.addAttribute("seriesData1", query1SeriesData);
         model.addAttribute("query1", query1);
         model.addAttribute("query2", query2);
         model.addAttribute("query3", query3);
         model.addAttribute("query4", query4);
         model.addAttribute("query5", query5);
 
-        String userName = principal.getName();
-        String favoriteURL = "";
-
-        memberService.getDbFavriteURL(userName);
-
-        for (int i = 0; i < memberService.getDbFavriteURL(userName).size(); i++) {
-            favoriteURL = memberService.getDbFavriteURL(userName).get(i);
-            if (i==0){
-                model.addAttribute("url1", favoriteURL);
-            } else if (i==1) {
-                model.addAttribute("url2", favoriteURL);
-            } else if (i==2) {
-                model.addAttribute("url3", favoriteURL);
-            } else if (i==3) {
-                model.addAttribute("url4", favoriteURL);
-            } else if (i==4) {
-                model.addAttribute("url5", favoriteURL);
-            }
-        }
-
+        //요청마다 한 번만 조회한다 (최근에 추가한 순서)
+        model.addAttribute("favorites", memberService.getDbFavriteURL(principal.getName()));
 
-        if (query2!=""){
-            List<String> query2SeriesData = memberService.apiResponseY(query2, year, month1, day1, year2, month2, day2, timeunit, coverage, gender,  age);
-            model.addAttribute("seriesData2", query2SeriesData);
-        }
 
-        if (query3!=""){
-            List<String> query3SeriesData = memberService.apiResponseY(query3, year, month1, day1, year2, month2, day2, timeunit, coverage, gender,  age);
-            model.addAttribute("seriesData3", query3SeriesData);
-        }
-
-        if (query4!=""){
-            List<String> query4SeriesData = memberService.apiResponseY(query4, year, month1, day1, year2, month2, day2, timeunit, coverage, gender,  age);
-            model.addAttribute("seriesData4", query4SeriesData);
-        }
+        return "index_result";
+    }
 
-        if (query5!=""){
-            List<String> query5SeriesData = memberService.apiResponseY(query5, year, month1, day1, year2, month2, day2, timeunit, coverage, gender,  age);
-            model.addAttribute("seriesData5", query5SeriesData);
+    private static String trendUrl(String path, List<String> searchQueries, TrendInput trendInput) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath(path)
+                .queryParam("keyword", searchQueries.toArray())
+                .queryParam("startDate", trendInput.getStartDate())
+                .queryParam("endDate", trendInput.getEndDate())
+                .queryParam("timeUnit", trendInput.getTimeUnit())
+                .queryParam("device", trendInput.getDevice())
+                .queryParam("gender", trendInput.getGender())
+                .queryParam("ages", (Object[]) trendInput.getAges());
+        if (trendInput.getPoints() > 0) {
+            builder.queryParam("points", trendInput.getPoints());
         }
-
-        return "index_result";
+        return builder.encode().toUriString();
     }
 
     @PostMapping("/index_result")
@@ -0,0 +1,179 @@
+package com.example.demo.member.controller;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.service.MemberService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * 검색어 트렌드 JSON API.
+ * 차트 화면은 이 API 로 데이터를 따로 받아 오므로, 조건을 바꿔도 화면 전체를 다시 그리지 않고
+ * 같은 조건을 다시 보면 브라우저 캐시(ETag/304)로 끝난다.
+ * <pre>
+ * GET /api/trends?keyword=자바&keyword=코틀린&startDate=2024-01-01&endDate=2024-12-31&timeUnit=date&device=&gender=&ages=1&ages=2&points=600
+ * </pre>
+ * /api/trends/stream 은 같은 조건을 SSE 로 받는다. 묶음(최대 5개 검색어)별 결과가 나오는 대로 series 이벤트로 보내고,
+ * 모두 끝나거나 검색 제한 시간이 지나면 complete 이벤트를 보내고 닫는다.
+ */
+@RequiredArgsConstructor
+@RestController
+public class TrendApiController {
+
+    //한 번에 비교할 수 있는 검색어 수
+    private static final int MAX_KEYWORDS = 20;
+
+    //SSE 연결은 검색 제한 시간보다 이만큼 더 열어 둔다 (제한 시간에 맞춰 보내는 실패 결과와 complete 이벤트용)
+    private static final Duration STREAM_MARGIN = Duration.ofSeconds(2);
+
+    private final MemberService memberService;
+    private final Clock clock;
+    private final DatalabProperties datalabProperties;
+
+    /**
+     * 데이터랩 응답은 trendExecutor 에서 기다리고, 서블릿 스레드는 요청을 넘긴 뒤 바로 반환된다. (비동기 요청 처리)
+     * 응답의 ETag 가 If-None-Match 와 같으면 Spring 이 본문 없이 304 로 응답한다.
+     */
+    @GetMapping(value = "/api/trends", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<String>> trends(@RequestParam(name = "keyword", required = false) List<String> keyword,
+                                                            TrendInput parameter) {
+
+        List<String> keywords = keywords(keyword);
+        if (keywords.isEmpty() || keywords.size() > MAX_KEYWORDS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("{\"error\":\"검색어는 1개 이상 " + MAX_KEYWORDS + "개 이하로 입력해주세요.\"}"));
+        }
+
+        return memberService.apiResponseAsync(keywords, parameter).thenApply(trendChart -> {
+            String json = trendChart.toJson();
+
+            //같은 결과면 같은 값이 나오도록 응답 본문으로 만든 강한(strong) ETag
+            return ResponseEntity.ok()
+                    .eTag(etag(json))
+                    .cacheControl(cacheControl(trendChart, parameter))
+                    .body(json);
+        });
+    }
+
+    @GetMapping(value = "/api/trends/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(name = "keyword", required = false) List<String> keyword,
+                                             TrendInput parameter) {
+
+        List<String> keywords = keywords(keyword);
+        if (keywords.isEmpty() || keywords.size() > MAX_KEYWORDS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        long startNanos = System.nanoTime();
+        SseEmitter emitter = new SseEmitter(datalabProperties.getSearchTimeout().plus(STREAM_MARGIN).toMillis());
+
+        //값이 빈 차트로 그릴 순서(입력 순서)를 먼저 알려주고, 결과는 도착하는 대로 검색어 이름으로 맞춰 넣게 한다
+        send(emitter, "start", TrendChart.of(new int[0], keywords, new double[keywords.size()][0]).toJson());
+
+        List<CompletableFuture<TrendChart>> parts = memberService.apiResponseParts(keywords, parameter);
+        for (CompletableFuture<TrendChart> part : parts) {
+            part.thenAccept(trendChart -> send(emitter, "series", trendChart.toJson()));
+        }
+
+        //각 묶음은 제한 시간이 지나면 실패 결과로 끝나므로 allOf 도 제한 시간 안에 끝난다
+        CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).whenComplete((ignored, e) -> {
+            long failed = parts.stream()
+                    .map(CompletableFuture::join)
+                    .mapToLong(trendChart -> IntStream.range(0, trendChart.getKeywords().size())
+                            .filter(trendChart::isFailed)
+                            .count())
+                    .sum();
+            long elapsed = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+            send(emitter, "complete", "{\"keywords\":" + keywords.size() + ",\"failed\":" + failed
+                    + ",\"elapsedMillis\":" + elapsed + "}");
+            emitter.complete();
+        });
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(emitter);
+    }
+
+    /**
+     * 여러 묶음의 결과가 다른 스레드에서 동시에 도착하므로 한 번에 한 이벤트씩 보낸다.
+     * 브라우저가 연결을 끊었으면 더 보내지 않는다.
+     */
+    private static void send(SseEmitter emitter, String name, String json) {
+        synchronized (emitter) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * 비어있지 않은 검색어만 입력 순서대로 (중복 제거)
+     */
+    static List<String> keywords(List<String> keyword) {
+        LinkedHashSet<String> keywords = new LinkedHashSet<>();
+        if (keyword != null) {
+            for (String value : keyword) {
+                if (value != null && !value.isBlank()) {
+                    keywords.add(value.trim());
+                }
+            }
+        }
+        return new ArrayList<>(keywords);
+    }
+
+    /**
+     * 실패가 섞인 결과는 저장하지 않고, stale 결과는 매번 다시 확인한다.
+     * 이미 지난 기간만 조회했으면 값이 바뀌지 않으므로 오래 두고, 오늘까지 걸친 기간은 짧게 둔다.
+     */
+    private CacheControl cacheControl(TrendChart trendChart, TrendInput parameter) {
+        if (trendChart.hasFailure()) {
+            return CacheControl.noStore();
+        }
+        if (trendChart.isStale()) {
+            return CacheControl.noCache().cachePrivate();
+        }
+
+        boolean historical = false;
+        if (parameter.getEndDate() != null) {
+            try {
+                historical = LocalDate.parse(parameter.getEndDate()).isBefore(LocalDate.now(clock));
+            } catch (DateTimeParseException e) {
+                historical = false;
+            }
+        }
+        return CacheControl.maxAge(historical ? Duration.ofHours(1) : Duration.ofMinutes(1)).cachePrivate();
+    }
+
+    private static String etag(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.demo.member.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 여러 검색어의 트렌드를 하나의 기간 축으로 묶은 불변 결과.
+ * period 는 오름차순 epochDay 이고, ratio[i][j] 는 i 번째 검색어의 period[j] 값이다. (값이 없으면 NaN)
+ * 검색어마다 별도의 기간 목록을 두지 않으므로 캐시에 담을 때 메모리를 적게 쓴다.
+ */
+public class TrendChart {
+
+    private static final TrendChart EMPTY = new TrendChart(new int[0], List.of(), new double[0][], new String[0], false);
+
+    private final int[] period;
+    private final List<String> keywords;
+    private final double[][] ratio;
+    //검색어별 실패 사유 (성공한 검색어는 null)
+    private final String[] errorMessage;
+    //API 장애 등으로 새 값을 받지 못해 마지막으로 받은 값을 대신 보여주는 경우
+    private final boolean stale;
+
+    private TrendChart(int[] period, List<String> keywords, double[][] ratio, String[] errorMessage, boolean stale) {
+        this.period = period;
+        this.keywords = keywords;
+        this.ratio = ratio;
+        this.errorMessage = errorMessage;
+        this.stale = stale;
+    }
+
+    public static TrendChart empty() {
+        return EMPTY;
+    }
+
+    public static TrendChart failed(List<String> keywords, String message) {
+        double[][] ratio = new double[keywords.size()][0];
+        String[] errorMessage = new String[keywords.size()];
+        Arrays.fill(errorMessage, message == null ? "API 요청 실패" : message);
+        return new TrendChart(new int[0], List.copyOf(keywords), ratio, errorMessage, false);
+    }
+
+    /**
+     * 검색어별 결과(각자 기간 목록을 가진)를 하나의 기간 축으로 합친다.
+     */
+    public static TrendChart of(List<TrendSeries> trendSeriesList) {
+        List<String> keywords = new ArrayList<>();
+        List<int[]> periods = new ArrayList<>();
+        List<double[]> ratios = new ArrayList<>();
+        for (TrendSeries trendSeries : trendSeriesList) {
+            keywords.add(trendSeries.getKeyword());
+            periods.add(trendSeries.getPeriod());
+            ratios.add(trendSeries.getRatio());
+        }
+        return align(keywords, periods, ratios, new String[keywords.size()], false);
+    }
+
+    /**
+     * 기간 축과 검색어별 값 배열로 바로 만든다. (배열은 복사하지 않으므로 넘긴 뒤 고치면 안 된다)
+     */
+    public static TrendChart of(int[] period, List<String> keywords, double[][] ratio) {
+        return new TrendChart(period, List.copyOf(keywords), ratio, new String[keywords.size()], false);
+    }
+
+    /**
+     * 검색어와 실패 사유는 그대로 두고 기간 축과 값만 바꾼 결과 (묶기/줄이기에 사용)
+     */
+    public TrendChart withValues(int[] period, double[][] ratio) {
+        return new TrendChart(period, keywords, ratio, errorMessage, stale);
+    }
+
+    /**
+     * 같은 값을 stale 로 표시한 결과
+     */
+    public TrendChart asStale() {
+        return stale ? this : new TrendChart(period, keywords, ratio, errorMessage, true);
+    }
+
+    /**
+     * 따로 요청한 결과들을 keywords 순서로 합친다. parts 에 없는 검색어는 빈 결과가 된다.
+     */
+    public static TrendChart merge(List<TrendChart> parts, List<String> keywords) {
+        if (parts.size() == 1 && parts.get(0).keywords.equals(keywords)) {
+            return parts.get(0);
+        }
+
+        List<int[]> periods = new ArrayList<>();
+        List<double[]> ratios = new ArrayList<>();
+        String[] errorMessage = new String[keywords.size()];
+        boolean stale = false;
+        for (TrendChart part : parts) {
+            stale |= part.stale;
+        }
+        for (int k = 0; k < keywords.size(); k++) {
+            int[] period = new int[0];
+            double[] ratio = new double[0];
+            for (TrendChart part : parts) {
+                int index = part.keywords.indexOf(keywords.get(k));
+                if (index >= 0) {
+                    period = part.period;
+                    ratio = part.ratio[index];
+                    errorMessage[k] = part.errorMessage[index];
+                    break;
+                }
+            }
+            periods.add(period);
+            ratios.add(ratio);
+        }
+        return align(keywords, periods, ratios, errorMessage, stale);
+    }
+
+    private static TrendChart align(List<String> keywords, List<int[]> periods, List<double[]> ratios, String[] errorMessage, boolean stale) {
+        //대부분 모든 검색어의 기간이 같으므로 그대로 쓴다
+        int[] axis = periods.isEmpty() ? new int[0] : periods.get(0);
+        boolean shared = true;
+        for (int[] period : periods) {
+            if (!Arrays.equals(period, axis)) {
+                shared = false;
+                break;
+            }
+        }
+
+        if (!shared) {
+            axis = periods.stream()
+                    .flatMapToInt(Arrays::stream)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+        }
+
+        double[][] ratio = new double[keywords.size()][];
+        for (int k = 0; k < keywords.size(); k++) {
+            if (shared) {
+                ratio[k] = ratios.get(k);
+                continue;
+            }
+            ratio[k] = new double[axis.length];
+            Arrays.fill(ratio[k], Double.NaN);
+            int[] period = periods.get(k);
+            for (int i = 0; i < period.length; i++) {
+                ratio[k][Arrays.binarySearch(axis, period[i])] = ratios.get(k)[i];
+            }
+        }
+
+        return new TrendChart(axis, List.copyOf(keywords), ratio, errorMessage, stale);
+    }
+
+    public int[] getPeriod() {
+        return period;
+    }
+
+    public List<String> getKeywords() {
+        return Collections.unmodifiableList(keywords);
+    }
+
+    public double[] getRatio(int index) {
+        return ratio[index];
+    }
+
+    public String getErrorMessage(int index) {
+        return errorMessage[index];
+    }
+
+    public boolean isFailed(int index) {
+        return errorMessage[index] != null;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public boolean hasFailure() {
+        for (String message : errorMessage) {
+            if (message != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 힙에서 차지하는 크기 추정치 (캐시 용량 계산용)
+     */
+    public long estimateBytes() {
+        long bytes = 128 + period.length * 4L;
+        for (int k = 0; k < keywords.size(); k++) {
+            bytes += 64 + keywords.get(k).length() * 2L + ratio[k].length * 8L;
+        }
+        return bytes;
+    }
+
+    /**
+     * {"period":[epochDay...],"keywords":[...],"ratio":[[...]...],"errors":[null|"..."...],"stale":false}
+     * 값이 없는 점은 null 로 쓴다. 문자열은 HTML/스크립트 안에 그대로 넣어도 안전하도록 &lt; &gt; &amp; ' 를 \\uXXXX 로 쓴다.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(32 + period.length * 8 * (keywords.size() + 1));
+
+        sb.append("{\"period\":[");
+        for (int i = 0; i < period.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(period[i]);
+        }
+
+        sb.append("],\"keywords\":[");
+        for (int k = 0; k < keywords.size(); k++) {
+            if (k > 0) {
+                sb.append(',');
+            }
+            appendString(sb, keywords.get(k));
+        }
+
+        sb.append("],\"ratio\":[");
+        for (int k = 0; k < keywords.size(); k++) {
+            if (k > 0) {
+                sb.append(',');
+            }
+            sb.append('[');
+            double[] values = ratio[k];
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendNumber(sb, values[i]);
+            }
+            sb.append(']');
+        }
+
+        sb.append("],\"errors\":[");
+        for (int k = 0; k < keywords.size(); k++) {
+            if (k > 0) {
+                sb.append(',');
+            }
+            if (errorMessage[k] == null) {
+                sb.append("null");
+            } else {
+                appendString(sb, errorMessage[k]);
+            }
+        }
+        sb.append("],\"stale\":").append(stale).append('}');
+
+        return sb.toString();
+    }
+
+    private static void appendNumber(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            sb.append("null");
+            return;
+        }
+        //데이터랩 비율은 소수점 다섯 자리까지만 의미가 있다
+        double rounded = Math.round(value * 100000) / 100000.0;
+        if (rounded == (long) rounded) {
+            sb.append((long) rounded);
+        } else {
+            sb.append(rounded);
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == '\'' || c == '\u2028' || c == '\u2029') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.member.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 데이터랩 응답에서 읽은 검색어 하나의 결과 (기간 + 비율). 화면/캐시에는 TrendChart 로 합쳐서 쓴다
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class TrendSeries {
+
+    private String keyword;
+
+    //기간 시작일(epochDay)과 비율. 같은 위치끼리 한 점이다
+    @Builder.Default
+    private int[] period = new int[0];
+
+    @Builder.Default
+    private double[] ratio = new double[0];
+}
@@ -0,0 +1,31 @@
+package com.example.demo.member.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 시작할 때 한 번만 하면 되는 데이터 이전(예전 컬럼 -> 새 테이블)을 마친 기록.
+ * 기록이 있으면 다음 시작부터는 member 테이블을 다시 훑지 않는다.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "data_migration")
+public class DataMigration {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    private LocalDateTime doneDt;
+}
@@ -0,0 +1,51 @@
+package com.example.demo.member.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 회원별 즐겨찾기 URL.
+ * 같은 회원의 같은 URL(정규화한 URL 의 해시)은 한 행만 두고, position 이 큰(최근에 추가한) 순서로 보여준다.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "favorite",
+        uniqueConstraints = @UniqueConstraint(name = "uk_favorite_user_url", columnNames = {"user_id", "url_hash"}),
+        indexes = @Index(name = "ix_favorite_user_position", columnList = "user_id, position"))
+public class Favorite {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    //정규화한 URL 의 SHA-256 (URL 자체는 길어서 유니크 인덱스로 쓰지 않는다)
+    @Column(name = "url_hash", nullable = false, length = 64)
+    private String urlHash;
+
+    //추가하거나 다시 추가한 시각(ms). 클수록 앞에 보여주고, 개수를 넘으면 작은 것부터 지운다
+    @Column(nullable = false)
+    private long position;
+
+    private LocalDateTime regDt;
+}
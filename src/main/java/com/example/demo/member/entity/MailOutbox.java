@@ -0,0 +1,65 @@
+package com.example.demo.member.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 보낼 메일. 회원 정보를 바꾸는 트랜잭션 안에서 함께 저장하고, MailOutboxWorker 가 꺼내서 보낸다.
+ * 보낸 메일은 지우고, maxAttempts 번 실패한 메일은 DEAD 로 남겨 둔다.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "mail_outbox",
+        indexes = @Index(name = "ix_mail_outbox_status_next", columnList = "status, next_attempt_at"))
+public class MailOutbox {
+
+    public enum Status {
+        PENDING, DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false)
+    private String text;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    //다음에 보낼 시각(ms). 워커가 가져가면 lease 만큼 뒤로 미뤄서 다른 워커/서버가 같은 메일을 가져가지 않게 한다
+    @Column(name = "next_attempt_at", nullable = false)
+    private long nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime regDt;
+}
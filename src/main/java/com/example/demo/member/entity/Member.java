@@ -26,15 +26,9 @@ public class Member {
 
     private boolean emailAuthYn;
     private LocalDateTime emailAuthDt;
-    private String emailAuthKey;
-
-    private String resetPasswordKey;
-    private LocalDateTime resetPasswordLimitDt;
-    private String favorites1;
-    private String favorites2;
-    private String favorites3;
-    private String favorites4;
-    private String favorites5;
+
+    //비밀번호, 인증 여부, 권한을 바꿀 때마다 올린다. 서버마다 있는 로그인 캐시가 이 값으로 바뀐 회원을 알아챈다
+    private Long credentialsVersion;
 
     //관리자 여부를 지정할꺼냐?
     //회원에 따른 ROLE을 지정할거냐??
@@ -0,0 +1,57 @@
+package com.example.demo.member.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 메일 링크로 보내는 일회용 키(이메일 인증, 비밀번호 초기화).
+ * 키 자체는 저장하지 않고 SHA-256 만 저장하므로 DB 가 유출돼도 링크를 만들 수 없다.
+ * 한 번 사용하면 usedAt 을 채우고, 만료된 행은 MemberTokens 가 주기적으로 지운다.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "member_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_member_token_hash", columnNames = "token_hash"),
+        indexes = @Index(name = "ix_member_token_expires", columnList = "expires_at"))
+public class MemberToken {
+
+    public enum Purpose {
+        EMAIL_AUTH, RESET_PASSWORD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Purpose purpose;
+
+    //만료 시각(ms)
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    //사용한 시각(ms). 사용하지 않았으면 null
+    private Long usedAt;
+}
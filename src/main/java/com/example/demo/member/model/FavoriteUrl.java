@@ -0,0 +1,77 @@
+package com.example.demo.member.model;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * 즐겨찾기에 저장할 URL.
+ * 같은 주소를 다르게 쓴 경우(scheme/host 대소문자, 기본 포트, #fragment, 빈 경로)를 하나로 보도록 정규화하고,
+ * 정규화한 URL 의 해시로 중복을 판단한다.
+ */
+@Getter
+public class FavoriteUrl {
+
+    public static final int MAX_LENGTH = 2048;
+
+    private final String url;
+    private final String normalized;
+    private final String hash;
+
+    private FavoriteUrl(String url, String normalized) {
+        this.url = url;
+        this.normalized = normalized;
+        this.hash = sha256(normalized);
+    }
+
+    /**
+     * 비어 있거나 너무 긴 URL 이면 null
+     */
+    public static FavoriteUrl of(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String url = value.trim();
+        if (url.length() > MAX_LENGTH) {
+            return null;
+        }
+        return new FavoriteUrl(url, normalize(url));
+    }
+
+    static String normalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return url;
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return url;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        String authority = uri.getRawAuthority().toLowerCase(Locale.ROOT);
+        if (("http".equals(scheme) && authority.endsWith(":80")) || ("https".equals(scheme) && authority.endsWith(":443"))) {
+            authority = authority.substring(0, authority.lastIndexOf(':'));
+        }
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        String query = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+
+        return scheme + "://" + authority + path + query;
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.member.model;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * loadUserByUsername 결과. 읽을 때의 member.credentials_version 을 함께 들고 있어서
+ * MemberUserCache 가 다른 서버에서 바뀐 회원인지 확인할 수 있다.
+ */
+@Getter
+public class MemberUser extends User {
+
+    private final long credentialsVersion;
+
+    public MemberUser(String username, String password, Collection<? extends GrantedAuthority> authorities, long credentialsVersion) {
+        super(username, password, authorities);
+        this.credentialsVersion = credentialsVersion;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.member.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 검색어 트렌드 조회 조건 (검색어를 제외한 공통 필터)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class TrendInput {
+    private String startDate;//yyyy-MM-dd
+    private String endDate;//yyyy-MM-dd
+    private String timeUnit;//date, week, month
+    private String device;//"", pc, mo
+    private String gender;//"", m, f
+    private String[] ages;
+    private int points;//화면에 보낼 최대 점 개수 (0 이면 기본값)
+}
@@ -0,0 +1,137 @@
+package com.example.demo.member.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 데이터랩에 보내는 요청 한 건을 정규화한 값.
+ * 검색어와 연령은 정렬해서 보관하므로 입력 순서가 달라도 같은 요청이면 equals 가 같다. (캐시 키로 사용)
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class TrendQuery {
+
+    //연령 코드("1" ~ "11")는 숫자 순서로 정렬한다
+    private static final Comparator<String> AGE_ORDER = Comparator.comparingInt(String::length)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final List<String> keywords;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String timeUnit;
+    private final String device;
+    private final String gender;
+    private final List<String> ages;
+
+    private TrendQuery(List<String> keywords, LocalDate startDate, LocalDate endDate,
+                       String timeUnit, String device, String gender, List<String> ages) {
+        this.keywords = keywords;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.timeUnit = timeUnit;
+        this.device = device;
+        this.gender = gender;
+        this.ages = ages;
+    }
+
+    /**
+     * 날짜 형식이 yyyy-MM-dd 가 아니면 DateTimeParseException 이 발생한다.
+     */
+    public static TrendQuery of(Collection<String> keywords, TrendInput parameter) {
+        List<String> ages = new ArrayList<>();
+        if (parameter.getAges() != null) {
+            TreeSet<String> sortedAges = new TreeSet<>(AGE_ORDER);
+            for (String age : parameter.getAges()) {
+                if (age != null && !age.isBlank()) {
+                    sortedAges.add(age.trim());
+                }
+            }
+            ages.addAll(sortedAges);
+        }
+
+        return new TrendQuery(
+                List.copyOf(new TreeSet<>(keywords)),
+                LocalDate.parse(parameter.getStartDate()),
+                LocalDate.parse(parameter.getEndDate()),
+                nullToEmpty(parameter.getTimeUnit()),
+                nullToEmpty(parameter.getDevice()),
+                nullToEmpty(parameter.getGender()),
+                List.copyOf(ages));
+    }
+
+    /**
+     * 기간만 바꾼 요청 (빠진 구간만 따로 받을 때 사용)
+     */
+    public TrendQuery withRange(LocalDate startDate, LocalDate endDate) {
+        return new TrendQuery(keywords, startDate, endDate, timeUnit, device, gender, ages);
+    }
+
+    /**
+     * 단위만 바꾼 요청 (주/월 단위를 일별 데이터로 받아서 직접 묶을 때 사용)
+     */
+    public TrendQuery withTimeUnit(String timeUnit) {
+        return new TrendQuery(keywords, startDate, endDate, timeUnit, device, gender, ages);
+    }
+
+    /**
+     * 조회 기간이 오늘(또는 미래)까지 걸쳐 있으면 아직 값이 바뀔 수 있는 요청이다.
+     */
+    public boolean isOpenEnded(LocalDate today) {
+        return !endDate.isBefore(today);
+    }
+
+    /**
+     * 조회 기간을 뺀 나머지 조건(검색어, 단위, 필터)을 나타내는 값.
+     * 같은 조건이면 기간이 달라도 같은 값이 나오므로 일별 데이터를 기간에 상관없이 모아 둘 때 키로 쓴다.
+     */
+    public String fingerprint() {
+        String source = String.join("\u0000", keywords) + "|" + timeUnit + "|" + device + "|" + gender + "|" + String.join(",", ages);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String toRequestBody() throws JSONException {
+        JSONArray keywordGroups = new JSONArray();
+        for (String keyword : keywords) {
+            JSONObject keywordGroup = new JSONObject();
+            keywordGroup.put("groupName", keyword);
+            keywordGroup.put("keywords", new JSONArray().put(keyword));
+            keywordGroups.put(keywordGroup);
+        }
+
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("startDate", startDate.toString());
+        requestBody.put("endDate", endDate.toString());
+        requestBody.put("timeUnit", timeUnit);
+        requestBody.put("keywordGroups", keywordGroups);
+        requestBody.put("device", device);
+        requestBody.put("ages", new JSONArray(ages));
+        requestBody.put("gender", gender);
+
+        return requestBody.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.member.repository;
+
+import com.example.demo.member.entity.DataMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DataMigrationRepository extends JpaRepository<DataMigration, String> {
+}
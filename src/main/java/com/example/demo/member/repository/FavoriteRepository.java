@@ -0,0 +1,42 @@
+package com.example.demo.member.repository;
+
+import com.example.demo.member.entity.Favorite;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+
+    /**
+     * 회원의 즐겨찾기 URL 을 최근 순서로 (user_id, position) 인덱스 범위 조회
+     */
+    @Query("select f.url from Favorite f where f.userId = :userId order by f.position desc, f.id desc")
+    List<String> findUrlsByUserId(@Param("userId") String userId);
+
+    /**
+     * 한 행만 추가한다. 이미 있는 URL 이면 맨 앞으로 옮긴다. (MySQL 8.0.19 이상의 행 별칭 문법)
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "insert into favorite (user_id, url, url_hash, position, reg_dt) "
+                    + "values (:userId, :url, :urlHash, :position, :regDt) as new "
+                    + "on duplicate key update url = new.url, position = new.position")
+    int upsert(@Param("userId") String userId,
+               @Param("url") String url,
+               @Param("urlHash") String urlHash,
+               @Param("position") long position,
+               @Param("regDt") LocalDateTime regDt);
+
+    /**
+     * 최근 순서로 pageable 범위에 있는 즐겨찾기 id (개수 제한을 넘는 행을 찾을 때 사용)
+     */
+    @Query("select f.id from Favorite f where f.userId = :userId order by f.position desc, f.id desc")
+    List<Long> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+}
@@ -0,0 +1,32 @@
+package com.example.demo.member.repository;
+
+import com.example.demo.member.entity.MailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * 보낼 때가 된 메일을 오래된 순서로 (status, next_attempt_at) 인덱스 범위 조회
+     */
+    @Query("select m from MailOutbox m where m.status = :status and m.nextAttemptAt <= :now order by m.nextAttemptAt, m.id")
+    List<MailOutbox> findDue(@Param("status") MailOutbox.Status status, @Param("now") long now, Pageable pageable);
+
+    /**
+     * 조회한 뒤 아무도 가져가지 않았으면 nextAttemptAt 을 leaseUntil 로 미루고 1 을 반환한다.
+     * 다른 워커/서버가 먼저 가져갔으면(nextAttemptAt 이 이미 바뀌었으면) 0.
+     */
+    @Transactional
+    @Modifying
+    @Query("update MailOutbox m set m.nextAttemptAt = :leaseUntil "
+            + "where m.id = :id and m.nextAttemptAt = :expected")
+    int claim(@Param("id") Long id, @Param("expected") long expected, @Param("leaseUntil") long leaseUntil);
+
+    long countByStatus(MailOutbox.Status status);
+}
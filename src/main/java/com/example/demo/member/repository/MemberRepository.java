@@ -2,12 +2,18 @@ package com.example.demo.member.repository;
 
 import com.example.demo.member.entity.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface MemberRepository extends JpaRepository<Member, String> {
 
-    Optional<Member> findByEmailAuthKey(String emailAuthKey);
     Optional<Member> findByUserIdAndUserName(String userId, String userName);
-    Optional<Member> findByResetPasswordKey(String resetPasswordKey);
+
+    /**
+     * 로그인 캐시 확인용. 회원 행 전체 대신 버전 한 칸만 기본 키로 읽는다. (회원이 없으면 빈 값)
+     */
+    @Query("select coalesce(m.credentialsVersion, 0) from Member m where m.userId = :userId")
+    Optional<Long> findCredentialsVersion(@Param("userId") String userId);
 }
@@ -0,0 +1,36 @@
+package com.example.demo.member.repository;
+
+import com.example.demo.member.entity.MemberToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface MemberTokenRepository extends JpaRepository<MemberToken, Long> {
+
+    /**
+     * token_hash 유니크 인덱스로 한 행만 조회
+     */
+    Optional<MemberToken> findByTokenHash(String tokenHash);
+
+    /**
+     * 사용하지 않았고 만료되지 않은 키만 사용한 것으로 바꾸고 1 을 반환한다.
+     * 같은 키로 동시에 요청해도 한 요청만 1 을 받는다.
+     */
+    @Transactional
+    @Modifying
+    @Query("update MemberToken t set t.usedAt = :now "
+            + "where t.tokenHash = :tokenHash and t.purpose = :purpose and t.usedAt is null and t.expiresAt > :now")
+    int consume(@Param("tokenHash") String tokenHash, @Param("purpose") MemberToken.Purpose purpose, @Param("now") long now);
+
+    /**
+     * 만료된 행의 id 를 오래된 순서로 (expires_at 인덱스 범위 조회)
+     */
+    @Query("select t.id from MemberToken t where t.expiresAt <= :now order by t.expiresAt")
+    List<Long> findExpiredIds(@Param("now") long now, Pageable pageable);
+}
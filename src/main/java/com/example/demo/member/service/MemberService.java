@@ -2,12 +2,15 @@ package com.example.demo.member.service;
 
 import com.example.demo.admin.dto.MemberDto;
 import com.example.demo.admin.model.MemberParam;
+import com.example.demo.member.dto.TrendChart;
 import com.example.demo.member.model.MemberInput;
 import com.example.demo.member.model.ResetPasswordInput;
+import com.example.demo.member.model.TrendInput;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MemberService extends UserDetailsService {
 
@@ -34,8 +37,20 @@ public interface MemberService extends UserDetailsService {
 
     /*회원 상세 정보*/
     MemberDto detail(String userId);
-    List<String> apiResponseX(String query, String year, String  month1, String day1, String year2, String month2, String day2, String timeunit, String coverage, String gender, String[] age);
-    List<String> apiResponseY(String query, String year, String  month1, String day1, String year2, String month2, String day2, String timeunit, String coverage, String gender, String[] age);
+
+    /*
+     * 검색어 트렌드 조회
+     * 검색어를 5개씩 keywordGroups로 묶어 요청하고, queries와 같은 순서로 하나의 기간 축에 합쳐 반환한다.
+     * 실패한 요청에 속한 검색어는 빈 값과 실패 사유로 채워진다.
+     * 호출한 스레드(서블릿 스레드)는 데이터랩 응답을 기다리지 않는다.
+     */
+    CompletableFuture<TrendChart> apiResponseAsync(List<String> queries, TrendInput parameter);
+
+    /*
+     * 검색어 트렌드를 묶음(한 번에 요청하는 최대 5개)별로 따로 조회한다.
+     * 각 future 는 해당 묶음의 결과가 나오는 대로 완료되고, 검색 제한 시간이 지나면 실패 결과로 완료된다.
+     */
+    List<CompletableFuture<TrendChart>> apiResponseParts(List<String> queries, TrendInput parameter);
 
     boolean setDbFavoritesURL(String url, String username);
     ArrayList<String> getDbFavriteURL(String username);
@@ -0,0 +1,70 @@
+package com.example.demo.member.service.impl;
+
+import com.example.demo.member.entity.DataMigration;
+import com.example.demo.member.repository.DataMigrationRepository;
+import com.example.demo.member.service.MemberService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * member.favorites1~5 컬럼에 남아 있는 예전 즐겨찾기를 favorite 테이블로 옮긴다.
+ * 옮긴 회원은 예전 컬럼을 비우므로 여러 번 실행해도 같은 결과가 된다. (컬럼이 없는 새 DB 에서는 아무것도 하지 않는다)
+ * 다 옮기면 data_migration 에 기록을 남기고, 그 뒤로는 시작할 때 member 테이블을 훑지 않는다.
+ * 컬럼이 있는지는 information_schema 로 먼저 확인하고, 그 밖의 DB 오류(연결 끊김, 잠금 대기 초과 등)는
+ * 기록을 남기지 않고 그대로 던져서 다음 시작 때 다시 옮기게 한다.
+ */
+@RequiredArgsConstructor
+@Component
+class LegacyFavoriteMigration implements ApplicationRunner {
+
+    private static final String NAME = "legacy-favorites";
+    private static final String[] COLUMNS = {"favorites1", "favorites2", "favorites3", "favorites4", "favorites5"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberService memberService;
+    private final DataMigrationRepository dataMigrationRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (dataMigrationRepository.existsById(NAME)) {
+            return;
+        }
+
+        //예전 컬럼이 없는 DB 는 옮길 것이 없다
+        List<Map<String, Object>> rows = legacyColumnCount() == 0 ? List.of()
+                : jdbcTemplate.queryForList("select user_id, " + String.join(", ", COLUMNS) + " from member"
+                + " where " + String.join(" is not null or ", COLUMNS) + " is not null");
+
+        for (Map<String, Object> row : rows) {
+            String userId = (String) row.get("user_id");
+
+            //favorites1 이 가장 먼저 추가한 것이므로 순서대로 넣어야 최근 순서가 유지된다
+            for (String column : COLUMNS) {
+                Object url = row.get(column);
+                if (url != null) {
+                    memberService.setDbFavoritesURL(url.toString(), userId);
+                }
+            }
+
+            jdbcTemplate.update("update member set " + String.join(" = null, ", COLUMNS) + " = null where user_id = ?", userId);
+        }
+
+        dataMigrationRepository.save(new DataMigration(NAME, LocalDateTime.now()));
+    }
+
+    private int legacyColumnCount() {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from information_schema.columns"
+                        + " where table_schema = database() and table_name = 'member'"
+                        + " and column_name in (" + String.join(", ", Collections.nCopies(COLUMNS.length, "?")) + ")",
+                Integer.class, (Object[]) COLUMNS);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.member.service.impl;
+
+import com.example.demo.components.MemberTokens;
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.entity.DataMigration;
+import com.example.demo.member.entity.MemberToken;
+import com.example.demo.member.repository.DataMigrationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * member.email_auth_key, reset_password_key 컬럼에 남아 있는 키를 member_token 으로 옮긴다.
+ * 이미 보낸 메일의 링크가 그대로 동작하도록 키 원문의 해시로 저장하고, 옮긴 회원은 예전 컬럼을 비운다.
+ * (컬럼이 없는 새 DB 에서는 아무것도 하지 않는다)
+ * 다 옮기면 data_migration 에 기록을 남기고, 그 뒤로는 시작할 때 member 테이블을 훑지 않는다.
+ * 컬럼이 있는지는 information_schema 로 먼저 확인하고, 그 밖의 DB 오류(연결 끊김, 잠금 대기 초과 등)는
+ * 기록을 남기지 않고 그대로 던져서 다음 시작 때 다시 옮기게 한다. (아직 유효한 메일 링크를 잃지 않도록)
+ */
+@RequiredArgsConstructor
+@Component
+class LegacyTokenMigration implements ApplicationRunner {
+
+    private static final String NAME = "legacy-tokens";
+    private static final String[] COLUMNS = {"email_auth_key", "reset_password_key", "reset_password_limit_dt"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberTokens memberTokens;
+    private final MemberProperties memberProperties;
+    private final Clock clock;
+    private final DataMigrationRepository dataMigrationRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (dataMigrationRepository.existsById(NAME)) {
+            return;
+        }
+
+        //예전 컬럼이 없는 DB 는 옮길 것이 없다
+        List<Map<String, Object>> rows = legacyColumnCount() == 0 ? List.of()
+                : jdbcTemplate.queryForList("select user_id, email_auth_yn, email_auth_key, reset_password_key, reset_password_limit_dt"
+                + " from member where email_auth_key is not null or reset_password_key is not null");
+
+        long now = clock.millis();
+        for (Map<String, Object> row : rows) {
+            String userId = (String) row.get("user_id");
+
+            //인증을 마친 회원의 키는 더 쓸 일이 없다
+            Object emailAuthKey = row.get("email_auth_key");
+            if (emailAuthKey != null && !emailAuthKey.toString().isEmpty() && !Boolean.TRUE.equals(row.get("email_auth_yn"))) {
+                store(emailAuthKey.toString(), userId, MemberToken.Purpose.EMAIL_AUTH,
+                        now + memberProperties.getToken().getEmailAuthTtl().toMillis());
+            }
+
+            Object resetPasswordKey = row.get("reset_password_key");
+            long limit = toMillis(row.get("reset_password_limit_dt"));
+            if (resetPasswordKey != null && !resetPasswordKey.toString().isEmpty() && limit > now) {
+                store(resetPasswordKey.toString(), userId, MemberToken.Purpose.RESET_PASSWORD, limit);
+            }
+
+            jdbcTemplate.update("update member set email_auth_key = null, reset_password_key = null, reset_password_limit_dt = null"
+                    + " where user_id = ?", userId);
+        }
+
+        dataMigrationRepository.save(new DataMigration(NAME, LocalDateTime.now()));
+    }
+
+    private int legacyColumnCount() {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from information_schema.columns"
+                        + " where table_schema = database() and table_name = 'member'"
+                        + " and column_name in (" + String.join(", ", Collections.nCopies(COLUMNS.length, "?")) + ")",
+                Integer.class, (Object[]) COLUMNS);
+        return count == null ? 0 : count;
+    }
+
+    private void store(String token, String userId, MemberToken.Purpose purpose, long expiresAt) {
+        try {
+            memberTokens.store(token, userId, purpose, expiresAt);
+        } catch (DataIntegrityViolationException e) {
+            //옮긴 뒤 컬럼을 비우기 전에 멈췄던 경우. 이미 옮겨져 있다
+        }
+    }
+
+    //드라이버 버전에 따라 DATETIME 이 Timestamp 또는 LocalDateTime 으로 온다
+    private long toMillis(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+        }
+        return 0;
+    }
+}
@@ -3,31 +3,54 @@ package com.example.demo.member.service.impl;
 import com.example.demo.admin.dto.MemberDto;
 import com.example.demo.admin.mapper.MemberMapper;
 import com.example.demo.admin.model.MemberParam;
+import com.example.demo.components.DatalabClient;
+import com.example.demo.components.DatalabException;
+import com.example.demo.components.DatalabResponseParser;
+import com.example.demo.components.DatalabScheduler.Priority;
+import com.example.demo.components.FavoriteCache;
 import com.example.demo.components.MailComponents;
+import com.example.demo.components.MailTemplate;
+import com.example.demo.components.MemberTokens;
+import com.example.demo.components.MemberUserCache;
+import com.example.demo.components.TrendCache;
+import com.example.demo.components.TrendReducer;
+import com.example.demo.components.TrendSingleFlight;
+import com.example.demo.components.TrendStore;
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
 import com.example.demo.member.entity.Member;
+import com.example.demo.member.entity.MemberToken;
 import com.example.demo.member.exception.MemberNotEmailAuthException;
+import com.example.demo.member.model.FavoriteUrl;
 import com.example.demo.member.model.MemberInput;
+import com.example.demo.member.model.MemberUser;
 import com.example.demo.member.model.ResetPasswordInput;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.model.TrendQuery;
+import com.example.demo.member.repository.FavoriteRepository;
 import com.example.demo.member.repository.MemberRepository;
 import com.example.demo.member.service.MemberService;
 import lombok.RequiredArgsConstructor;
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
-
-import static com.example.demo.DemoApplication.post;
+import java.util.concurrent.*;
 
 @RequiredArgsConstructor
 @Service
@@ -36,18 +59,54 @@ public class MemberServiceImpl implements MemberService {
     private final MemberRepository memberRepository;
     private final MailComponents mailComponents;
     private final MemberMapper memberMapper;
-
+    private final DatalabClient datalabClient;
+    private final TrendCache trendCache;
+    private final TrendStore trendStore;
+    private final Clock clock;
+    private final DatalabProperties datalabProperties;
+    private final ExecutorService trendExecutor;
+    private final TrendSingleFlight trendSingleFlight;
+    private final FavoriteCache favoriteCache;
+    private final FavoriteRepository favoriteRepository;
+    private final MemberUserCache memberUserCache;
+    private final PasswordEncoder passwordEncoder;
+    private final MemberTokens memberTokens;
+    private final TransactionTemplate transactionTemplate;
+
+    //데이터랩 검색어 트렌드 API가 한 번에 받을 수 있는 keywordGroups 최대 개수
+    private static final int MAX_KEYWORD_GROUPS = 5;
+
+    //회원당 즐겨찾기 수. 넘으면 가장 오래전에 추가한 것부터 지운다
+    private static final int MAX_FAVORITES = 100;
+
+    /**
+     * 비밀번호 해시는 오래 걸리므로(인코더 풀 대기 포함) 트랜잭션을 열기 전에 만든다.
+     * 트랜잭션 안에서는 회원 저장과 키 발급, 메일 outbox 등록만 한다.
+     * 인코더 풀이 가득 차서 해시를 만들지 못하면 500 대신 가입 실패(false)로 돌려준다.
+     */
     @Override
     public boolean register(MemberInput parameter) {
-        Optional<Member> optionalMember = memberRepository.findById(parameter.getUserId());
-        if(optionalMember.isPresent()) {
+        if (memberRepository.existsById(parameter.getUserId())) {
             //해당 Id에 데이터 존재
             return false;
         }
 
-        String encPassword = BCrypt.hashpw(parameter.getPassword(), BCrypt.gensalt());
+        String encPassword;
+        try {
+            encPassword = passwordEncoder.encode(parameter.getPassword());
+        } catch (AuthenticationServiceException e) {
+            return false;
+        }
+
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> register(parameter, encPassword)));
+    }
 
-        String uuid = UUID.randomUUID().toString();
+    private boolean register(MemberInput parameter, String encPassword) {
+        Optional<Member> optionalMember = memberRepository.findById(parameter.getUserId());
+        if(optionalMember.isPresent()) {
+            //해시를 만드는 사이에 같은 Id로 가입
+            return false;
+        }
 
         Member member = Member.builder()
                 .userId(parameter.getUserId())
@@ -56,25 +115,24 @@ public class MemberServiceImpl implements MemberService {
                 .password(encPassword)
                 .regDt(LocalDateTime.now())
                 .emailAuthYn(false)
-                .emailAuthKey(uuid)
                 .build();
 
         memberRepository.save(member);
+        memberUserCache.removeUserFromCache(member.getUserId());
 
-        String email = parameter.getUserId();
-        String subject = "demo 사이트 가입을 축하드립니다.";
-        String text = "<p> demo 사이트 가입을 축하드립니다.</p> <p>아래 링크를 클릭하셔서 가입을 완료하세요.</p>"
-                + "<div><a target='_blank' href='http://localhost:8080/member/email-auth?id=" + uuid + "'> 가입완료 </a></div>";
-
-        mailComponents.sendMail(email, subject, text);
+        String token = memberTokens.issue(member.getUserId(), MemberToken.Purpose.EMAIL_AUTH);
+        mailComponents.sendMail(parameter.getUserId(), MailTemplate.SIGNUP, parameter.getUserName(), token);
 
         return true;
     }
 
+    @Transactional
     @Override
     public boolean emailAuth(String uuid) {
 
-        Optional<Member> optionalMember = memberRepository.findByEmailAuthKey(uuid);//null이 가능한 member안의 인스턴스를 optionalMember객체에연결하고 memberrepository에서 emailauthkey를 찾아서연결
+        //키는 한 번만 사용할 수 있고, 회원은 키에 적힌 아이디(기본 키)로 찾는다
+        Optional<Member> optionalMember = memberTokens.consume(uuid, MemberToken.Purpose.EMAIL_AUTH)
+                .flatMap(memberRepository::findById);
         if (!optionalMember.isPresent()) {
             return false;
         }
@@ -87,11 +145,14 @@ public class MemberServiceImpl implements MemberService {
 
         member.setEmailAuthYn(true);
         member.setEmailAuthDt(LocalDateTime.now());
+        increaseCredentialsVersion(member);
         memberRepository.save(member);
+        memberUserCache.removeUserFromCache(member.getUserId());
 
         return true;
     }
 
+    @Transactional
     @Override
     public boolean sendResetPassword(ResetPasswordInput parameter) {
 
@@ -102,44 +163,43 @@ public class MemberServiceImpl implements MemberService {
 
         Member member = optionalMember.get();
 
-        String uuid = UUID.randomUUID().toString();
-
-        member.setResetPasswordKey(uuid);
-        member.setResetPasswordLimitDt(LocalDateTime.now().plusDays(1));
-        memberRepository.save(member);
-
-        String email = parameter.getUserId();
-        String subject = "[demo] 비밀번호 초기화 메일 입니다.";
-        String text = "<p> demo 비밀번호 초기화 메일입니다.</p> <p>아래 링크를 클릭하셔서 비밀번호를 초기화 해주세요.</p>" + "http://localhost:8080/member/reset/password?id=" + uuid
-                + "<div><a target='_blank' href='http://localhost:8080/member/reset/password?id=" + uuid + "'> 비밀번호 초기화 링크 </a></div>";
-        mailComponents.sendMail(email, subject, text);
+        String token = memberTokens.issue(member.getUserId(), MemberToken.Purpose.RESET_PASSWORD);
+        mailComponents.sendMail(parameter.getUserId(), MailTemplate.RESET_PASSWORD, member.getUserName(), token);
 
         return true;
     }
 
+    /**
+     * register 와 같이 비밀번호 해시는 트랜잭션 밖에서 만들고, 키 사용 처리와 비밀번호 변경만 트랜잭션으로 묶는다.
+     */
     @Override
     public boolean resetPassword(String uuid, String password) {
-        Optional<Member> optionalMember = memberRepository.findByResetPasswordKey(uuid);
-        if (!optionalMember.isPresent()) {
-            throw new UsernameNotFoundException("회원 정보가 존재하지않습니다.");
+        if (!memberTokens.find(uuid, MemberToken.Purpose.RESET_PASSWORD).isPresent()) {
+            throw new RuntimeException("유효한 날짜가 아닙니다.");
         }
 
-        Member member = optionalMember.get();
+        String encPassword = passwordEncoder.encode(password);
 
-        //초기화 날짜가 유효한지 체크
-        if(member.getResetPasswordLimitDt() == null) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> resetPassword(uuid, encPassword)));
+    }
+
+    private boolean resetPassword(String uuid, String encPassword) {
+        //그 사이에 같은 키로 먼저 초기화했으면 실패
+        Optional<String> userId = memberTokens.consume(uuid, MemberToken.Purpose.RESET_PASSWORD);
+        if (!userId.isPresent()) {
             throw new RuntimeException("유효한 날짜가 아닙니다.");
         }
 
-        if(member.getResetPasswordLimitDt().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("유효한 날짜가 아닙니다.");
+        Optional<Member> optionalMember = memberRepository.findById(userId.get());
+        if (!optionalMember.isPresent()) {
+            throw new UsernameNotFoundException("회원 정보가 존재하지않습니다.");
         }
 
-        String encPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+        Member member = optionalMember.get();
         member.setPassword(encPassword);
-        member.setResetPasswordKey("");
-        member.setResetPasswordLimitDt(null);
+        increaseCredentialsVersion(member);
         memberRepository.save(member);
+        memberUserCache.removeUserFromCache(member.getUserId());
 
         return true;
     }
@@ -147,23 +207,8 @@ public class MemberServiceImpl implements MemberService {
     @Override
     public boolean checkResetPassword(String uuid) {
 
-        Optional<Member> optionalMember = memberRepository.findByResetPasswordKey(uuid);
-        if (!optionalMember.isPresent()) {
-            return false;
-        }
-
-        Member member = optionalMember.get();
-
-        //초기화 날짜가 유효한지 체크
-        if(member.getResetPasswordLimitDt() == null) {
-            throw new RuntimeException("유효한 날짜가 아닙니다.");
-        }
-
-        if(member.getResetPasswordLimitDt().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("유효한 날짜가 아닙니다.");
-        }
-
-        return true;
+        //없거나, 만료됐거나, 이미 사용한 키이면 false
+        return memberTokens.find(uuid, MemberToken.Purpose.RESET_PASSWORD).isPresent();
     }
 
 
@@ -194,161 +239,215 @@ public class MemberServiceImpl implements MemberService {
     }
 
     @Override
-    public List<String> apiResponseX(String query, String year, String month1, String day1, String year2, String month2, String day2, String timeunit, String coverage, String gender, String[] age) {
-        String clientId = "yeRsNjkDl0PmHo3i09r1"; // 애플리케이션 클라이언트 아이디
-        String clientSecret = "iqRygcj9AF"; // 애플리케이션 클라이언트 시크릿
-
-        String apiUrl = "https://openapi.naver.com/v1/datalab/search";
-
-        Map<String, String> requestHeaders = new HashMap<>();
-        requestHeaders.put("X-Naver-Client-Id", clientId);
-        requestHeaders.put("X-Naver-Client-Secret", clientSecret);
-        requestHeaders.put("Content-Type", "application/json");
-
-        String agesString = "";
-        if (age != null) {
-            agesString = "[" + Arrays.stream(age)
-                    .map(a -> "\"" + a + "\"")
-                    .collect(Collectors.joining(",")) + "]";
+    public CompletableFuture<TrendChart> apiResponseAsync(List<String> queries, TrendInput parameter) {
+        List<CompletableFuture<TrendChart>> parts = trendParts(queries, parameter);
+        List<String> keywords = new ArrayList<>(new LinkedHashSet<>(queries));
+        int points = chartPoints(parameter);
+
+        //마지막 묶음이 끝난 스레드에서 합치므로 호출한 스레드는 기다리지 않는다
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<TrendChart> results = new ArrayList<>();
+                    for (CompletableFuture<TrendChart> part : parts) {
+                        results.add(part.join());
+                    }
+                    return TrendReducer.downsample(TrendChart.merge(results, keywords), points);
+                });
+    }
+
+    @Override
+    public List<CompletableFuture<TrendChart>> apiResponseParts(List<String> queries, TrendInput parameter) {
+        int points = chartPoints(parameter);
+
+        List<CompletableFuture<TrendChart>> parts = new ArrayList<>();
+        for (CompletableFuture<TrendChart> part : trendParts(queries, parameter)) {
+            parts.add(part.thenApply(trendChart -> TrendReducer.downsample(trendChart, points)));
         }
+        return parts;
+    }
 
-        String requestBody = "{\"startDate\":\"" + year + "-" + month1 + "-" + day1 + "\"," +
-                "\"endDate\":\"" + year2 + "-" + month2 + "-" + day2 + "\"," +
-                "\"timeUnit\":\"" +  timeunit + "\"," +
-                "\"keywordGroups\":" + (query.isEmpty() ? "[]" : "[{\"groupName\":\"" + query + "\"," + "\"keywords\":[\"" + query + "\"]}]") + "," +
-                "\"device\":\"" + coverage + "\"," +
-                "\"ages\":" + agesString + "," +
-                "\"gender\":\"" + gender + "\"}";
+    private int chartPoints(TrendInput parameter) {
+        return parameter.getPoints() > 0 ? parameter.getPoints() : datalabProperties.getChartPoints();
+    }
 
-        String responseBody = post(apiUrl, requestHeaders, requestBody);
+    /**
+     * 묶음별 조회를 trendExecutor 에 넘기고 바로 돌아온다.
+     * 각 future 는 검색 제한 시간이 지나면 실패 결과로 완료되므로 예외로 끝나지 않는다.
+     */
+    private List<CompletableFuture<TrendChart>> trendParts(List<String> queries, TrendInput parameter) {
+
+        List<String> keywords = new ArrayList<>(new TreeSet<>(queries));
+        long timeout = datalabProperties.getSearchTimeout().toMillis();
+
+        //묶음 안의 검색어끼리만 비율을 비교할 수 있으므로 한 번에 요청하는 최대 5개 단위로 나눈다
+        List<CompletableFuture<TrendChart>> parts = new ArrayList<>();
+        for (int i = 0; i < keywords.size(); i += MAX_KEYWORD_GROUPS) {
+            List<String> chunk = keywords.subList(i, Math.min(i + MAX_KEYWORD_GROUPS, keywords.size()));
+
+            CompletableFuture<TrendChart> part;
+            try {
+                part = CompletableFuture.supplyAsync(() -> cachedTrend(chunk, parameter), trendExecutor);
+            } catch (RejectedExecutionException e) {
+                part = CompletableFuture.completedFuture(
+                        TrendChart.failed(chunk, "요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요."));
+            }
 
-        List<String> xAxisData = new ArrayList<>();
-        List<String> seriesData = new ArrayList<>();
+            //제한 시간이 지나면 실패로 먼저 응답한다. 진행 중인 요청은 끝까지 받아서 캐시에 남긴다
+            parts.add(part
+                    .exceptionally(e -> TrendChart.failed(chunk, (e instanceof CompletionException && e.getCause() != null
+                            ? e.getCause() : e).getMessage()))
+                    .completeOnTimeout(TrendChart.failed(chunk, "API 응답 시간이 초과되었습니다."), timeout, TimeUnit.MILLISECONDS));
+        }
+        return parts;
+    }
+
+    private TrendChart cachedTrend(List<String> keywords, TrendInput parameter) {
+        TrendQuery trendQuery;
         try {
-            JSONObject jsonObject = new JSONObject(responseBody);
-            if (jsonObject.has("results")) {
-                JSONArray resultsArray = jsonObject.getJSONArray("results");
-                for (int i = 0; i < resultsArray.length(); i++) {
-                    JSONObject resultObject = resultsArray.getJSONObject(i);
-                    JSONArray dataArray = resultObject.getJSONArray("data");
-                    for (int j = 0; j < dataArray.length(); j++) {
-                        JSONObject dataObject = dataArray.getJSONObject(j);
-                        String period = dataObject.getString("period");
-                        String ratio = dataObject.getString("ratio");
-                        xAxisData.add(period);
-                        seriesData.add(ratio);
-                    }
-                }
+            trendQuery = TrendQuery.of(keywords, parameter);
+        } catch (DateTimeParseException e) {
+            return TrendChart.failed(keywords, "조회 기간이 올바르지 않습니다.");
+        }
+
+        //주/월 단위도 일별로 받아서 직접 묶는다. 단위만 바꾼 검색은 캐시/저장소의 일별 값으로 바로 응답한다
+        String timeUnit = trendQuery.getTimeUnit();
+        if (TrendReducer.isRollupUnit(timeUnit)) {
+            TrendChart daily = lookupTrend(trendQuery.withTimeUnit(TrendReducer.DATE));
+            if (daily.hasFailure()) {
+                return daily;
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
+            return TrendReducer.rollup(daily, timeUnit, (int) trendQuery.getStartDate().toEpochDay());
         }
 
-        return xAxisData;
+        return lookupTrend(trendQuery);
     }
 
-    @Override
-    public List<String> apiResponseY(String query, String year, String month1, String day1, String year2, String month2, String day2, String timeunit, String coverage, String gender, String[] age) {
-        String clientId = "yeRsNjkDl0PmHo3i09r1"; // 애플리케이션 클라이언트 아이디
-        String clientSecret = "iqRygcj9AF"; // 애플리케이션 클라이언트 시크릿
-
-        String apiUrl = "https://openapi.naver.com/v1/datalab/search";
-
-        Map<String, String> requestHeaders = new HashMap<>();
-        requestHeaders.put("X-Naver-Client-Id", clientId);
-        requestHeaders.put("X-Naver-Client-Secret", clientSecret);
-        requestHeaders.put("Content-Type", "application/json");
-
-        String agesString = "";
-        if (age != null) {
-            agesString = "[" + Arrays.stream(age)
-                    .map(a -> "\"" + a + "\"")
-                    .collect(Collectors.joining(",")) + "]";
+    private TrendChart lookupTrend(TrendQuery trendQuery) {
+        TrendChart cached = trendCache.get(trendQuery);
+        if (cached != null) {
+            return cached;
         }
 
-        String requestBody = "{\"startDate\":\"" + year + "-" + month1 + "-" + day1 + "\"," +
-                "\"endDate\":\"" + year2 + "-" + month2 + "-" + day2 + "\"," +
-                "\"timeUnit\":\"" +  timeunit + "\"," +
-                "\"keywordGroups\":" + (query.isEmpty() ? "[]" : "[{\"groupName\":\"" + query + "\"," + "\"keywords\":[\"" + query + "\"]}]") + "," +
-                "\"device\":\"" + coverage + "\"," +
-                "\"ages\":" + agesString + "," +
-                "\"gender\":\"" + gender + "\"}";
+        TrendChart stale = trendCache.getStale(trendQuery);
+        if (stale == null) {
+            return sharedTrend(trendQuery, Priority.INTERACTIVE, datalabProperties.getSearchTimeout());
+        }
 
-        String responseBody = post(apiUrl, requestHeaders, requestBody);
+        //지난 값이 있으면 새 값을 staleWait 까지만 기다리고, 늦거나 실패하면(차단 중 포함) 지난 값을 stale 로 표시해서 응답한다.
+        //조회는 TrendSingleFlight 의 스레드에서 실행되므로 기다리기를 그만둬도 계속 받아서 캐시에 담는다.
+        //보여줄 값이 이미 있으므로 백그라운드 갱신으로 요청해서, 화면 검색용으로 남겨 둔 한도(backgroundReserve)는 쓰지 않는다
+        TrendChart fresh = sharedTrend(trendQuery, Priority.BACKGROUND, datalabProperties.getStaleWait());
+        return fresh.hasFailure() ? stale.asStale() : fresh;
+    }
 
-        List<String> xAxisData = new ArrayList<>();
-        List<String> seriesData = new ArrayList<>();
+    /**
+     * 같은 요청이 동시에 들어오면 한 번만 조회해서 결과를 나눠 갖는다. timeout 이 지나면 실패 결과로 돌아온다.
+     */
+    private TrendChart sharedTrend(TrendQuery trendQuery, Priority priority, Duration timeout) {
         try {
-            JSONObject jsonObject = new JSONObject(responseBody);
-            if (jsonObject.has("results")) {
-                JSONArray resultsArray = jsonObject.getJSONArray("results");
-                for (int i = 0; i < resultsArray.length(); i++) {
-                    JSONObject resultObject = resultsArray.getJSONObject(i);
-                    JSONArray dataArray = resultObject.getJSONArray("data");
-                    for (int j = 0; j < dataArray.length(); j++) {
-                        JSONObject dataObject = dataArray.getJSONObject(j);
-                        String period = dataObject.getString("period");
-                        String ratio = dataObject.getString("ratio");
-                        xAxisData.add(period);
-                        seriesData.add(ratio);
-                    }
-                }
-            }
-        } catch (JSONException e) {
-            e.printStackTrace();
+            return trendSingleFlight.execute(trendQuery, () -> loadTrend(trendQuery, priority), timeout);
+        } catch (DatalabException e) {
+            return TrendChart.failed(trendQuery.getKeywords(), e.getMessage());
         }
-
-        return seriesData;
     }
 
-    @Override
-    public boolean setDbFavoritesURL(String url, String username) {
-        Optional<Member> optionalMember = memberRepository.findById(username);
+    /**
+     * 캐시에 없는 요청을 저장소 -> 부분 요청 -> 전체 요청 순서로 조회하고 캐시에 담는다.
+     */
+    private TrendChart loadTrend(TrendQuery trendQuery, Priority priority) {
 
-        Member member = optionalMember.get();
+        //지난 기간은 디스크에 저장된 값으로 응답한다
+        TrendChart stored = trendStore.read(trendQuery);
+        if (stored != null) {
+            trendCache.put(trendQuery, stored);
+            return stored;
+        }
 
-        if (member.getFavorites1()==null){
-            member.setFavorites1(url);
-        } else if (member.getFavorites1()!=null&&member.getFavorites2()==null) {
-            member.setFavorites2(url);
-        } else if (member.getFavorites2()!=null&&member.getFavorites3()==null) {
-            member.setFavorites3(url);
-        } else if (member.getFavorites3()!=null&&member.getFavorites4()==null) {
-            member.setFavorites4(url);
-        } else if (member.getFavorites4()!=null&&member.getFavorites5()==null) {
-            member.setFavorites5(url);
-        } else if (member.getFavorites5()!=null) {
+        //일부 기간만 저장되어 있으면 빠진 구간만 받아서 이어 붙인다
+        TrendChart incremental = incrementalTrend(trendQuery, priority);
+        if (incremental != null) {
+            trendCache.put(trendQuery, incremental);
+            return incremental;
         }
 
-        memberRepository.save(member);
+        TrendChart trendChart = requestTrend(trendQuery, priority);
+        if (!trendChart.hasFailure()) {
+            trendStore.write(trendQuery, trendChart);
+            trendCache.put(trendQuery, trendChart);
+        }
 
-        return true;
+        return trendChart;
     }
 
-    @Override
-    public ArrayList<String> getDbFavriteURL(String username) {
-        Optional<Member> optionalMember = memberRepository.findById(username);
-        Member member = optionalMember.get();
+    /**
+     * 저장소에 없는 구간만 요청해서 저장한 뒤, 저장된 값과 합쳐 요청 기간 전체를 만든다.
+     * 나눠 받을 수 없거나 도중에 실패하면 null 을 돌려주고, 이 경우 전체 기간을 다시 요청한다.
+     */
+    private TrendChart incrementalTrend(TrendQuery trendQuery, Priority priority) {
+        List<TrendQuery> parts = trendStore.plan(trendQuery);
+        if (parts == null) {
+            return null;
+        }
 
-        ArrayList<String> favoriteURL = new ArrayList<>();
+        TrendQuery tailQuery = null;
+        TrendChart tail = null;
+        for (TrendQuery part : parts) {
+            TrendChart partChart = requestTrend(part, priority);
+            if (partChart.hasFailure()) {
+                return null;
+            }
+            trendStore.write(part, partChart);
 
-        if(member.getFavorites1()!=null){
-            favoriteURL.add(member.getFavorites1());
-        }
-        if (member.getFavorites2()!=null){
-            favoriteURL.add(member.getFavorites2());
+            //오늘 이후 구간은 저장되지 않으므로 응답을 그대로 이어 붙인다
+            if (part.isOpenEnded(LocalDate.now(clock))) {
+                tailQuery = part;
+                tail = partChart;
+            }
         }
-        if (member.getFavorites3()!=null) {
-            favoriteURL.add(member.getFavorites3());
+
+        return trendStore.read(trendQuery, tailQuery, tail);
+    }
+
+    /**
+     * 최대 5개의 검색어를 keywordGroups로 묶어 한 번에 요청한다.
+     * 요청이 실패하면 해당 검색어들은 실패한 결과로 채워서 돌려준다.
+     */
+    private TrendChart requestTrend(TrendQuery trendQuery, Priority priority) {
+        try {
+            return TrendChart.of(datalabClient.post(trendQuery.toRequestBody(), datalabProperties.getRequestTimeout(), priority,
+                    body -> DatalabResponseParser.parse(body, trendQuery.getKeywords())));
+        } catch (RuntimeException | JSONException e) {
+            return TrendChart.failed(trendQuery.getKeywords(), e.getMessage());
         }
-        if (member.getFavorites4()!=null) {
-            favoriteURL.add(member.getFavorites4());
+    }
+
+    /**
+     * 즐겨찾기 한 건을 추가한다. 이미 있는 URL 이면 맨 앞으로 옮기고,
+     * MAX_FAVORITES 개를 넘으면 가장 오래전에 추가한 것부터 지운다.
+     */
+    @Override
+    public boolean setDbFavoritesURL(String url, String username) {
+        FavoriteUrl favoriteUrl = FavoriteUrl.of(url);
+        if (favoriteUrl == null) {
+            return false;
         }
-        if (member.getFavorites5()!=null) {
-            favoriteURL.add(member.getFavorites5());
+
+        favoriteRepository.upsert(username, favoriteUrl.getUrl(), favoriteUrl.getHash(),
+                clock.millis(), LocalDateTime.now(clock));
+
+        List<Long> overflow = favoriteRepository.findIdsByUserId(username, PageRequest.of(1, MAX_FAVORITES));
+        if (!overflow.isEmpty()) {
+            favoriteRepository.deleteAllByIdInBatch(overflow);
         }
 
-        return favoriteURL;
+        favoriteCache.evict(username);
+
+        return true;
+    }
+
+    @Override
+    public ArrayList<String> getDbFavriteURL(String username) {
+        return new ArrayList<>(favoriteCache.get(username, favoriteRepository::findUrlsByUserId));
     }
 
 
@@ -373,6 +472,15 @@ public class MemberServiceImpl implements MemberService {
             grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
         }
 
-        return new User(member.getUserId(), member.getPassword(), grantedAuthorities);
+        long credentialsVersion = member.getCredentialsVersion() == null ? 0 : member.getCredentialsVersion();
+        return new MemberUser(member.getUserId(), member.getPassword(), grantedAuthorities, credentialsVersion);
+    }
+
+    /**
+     * 다른 서버의 로그인 캐시가 바뀌기 전 값을 쓰지 않도록 버전을 올린다. (이 서버의 캐시는 removeUserFromCache 로 바로 지운다)
+     */
+    private static void increaseCredentialsVersion(Member member) {
+        long current = member.getCredentialsVersion() == null ? 0 : member.getCredentialsVersion();
+        member.setCredentialsVersion(current + 1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void strengthDoublesHashTimeUntilTarget() {
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+
+        assertThat(BoundedPasswordEncoder.strengthFor(60 * millis, 250 * millis)).isEqualTo(12);
+        assertThat(BoundedPasswordEncoder.strengthFor(300 * millis, 250 * millis)).isEqualTo(10);
+        assertThat(BoundedPasswordEncoder.strengthFor(1, 250 * millis)).isEqualTo(16);
+    }
+
+    @Test
+    void encodesAndMatchesOnPoolAndRecordsTimes() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(properties(4, 1, 4));
+        try {
+            String hash = encoder.encode("password");
+
+            assertThat(encoder.matches("password", hash)).isTrue();
+            assertThat(encoder.matches("wrong", hash)).isFalse();
+            assertThat(encoder.getStats()).containsEntry("strength", 4);
+            assertThat(encoder.getStats().get("matchesMillis").toString()).contains("count=2");
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        //해시 한 번에 수백 ms 걸리는 cost 로 스레드 1개, 대기열 1개를 채운다
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(properties(13, 1, 1));
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> encoder.encode("password")));
+            }
+
+            int rejected = 0;
+            for (Future<String> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(AuthenticationServiceException.class);
+                    rejected++;
+                }
+            }
+            assertThat(rejected).isEqualTo(2);
+            assertThat(encoder.getStats()).containsEntry("rejectedCount", 2L);
+        } finally {
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+
+    private static MemberProperties properties(int strength, int threads, int queue) {
+        MemberProperties properties = new MemberProperties();
+        properties.getPassword().setStrength(strength);
+        properties.getPassword().setThreads(threads);
+        properties.getPassword().setQueue(queue);
+        properties.getPassword().setMaxWait(Duration.ofSeconds(30));
+        return properties;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.components;
+
+import com.example.demo.components.DatalabCircuitBreaker.State;
+import com.example.demo.configuration.DatalabProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatalabCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T00:00:00Z"));
+
+    @Test
+    void opensWhenFailureRateReachedAndRejectsUntilOpenDurationPasses() {
+        DatalabCircuitBreaker breaker = new DatalabCircuitBreaker(properties(), clock);
+
+        for (int i = 0; i < 5; i++) {
+            call(breaker, FAST, false);
+        }
+        for (int i = 0; i < 4; i++) {
+            call(breaker, FAST, true);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        //10건 중 5건 실패 -> 50%
+        call(breaker, FAST, true);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(DatalabException.class);
+
+        clock.advance(Duration.ofSeconds(29));
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(DatalabException.class);
+        assertThat(breaker.getStats()).containsEntry("rejectedCount", 2L);
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulTrialsAndReopensOnFailure() {
+        DatalabCircuitBreaker breaker = new DatalabCircuitBreaker(properties(), clock);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, SLOW, false);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+
+        //시험 호출은 halfOpenCalls(2)건까지만 허용한다
+        clock.advance(Duration.ofSeconds(30));
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(DatalabException.class);
+
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, true);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+
+        clock.advance(Duration.ofSeconds(30));
+        call(breaker, FAST, false);
+        call(breaker, FAST, false);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    private static void call(DatalabCircuitBreaker breaker, long elapsedNanos, boolean failed) {
+        breaker.acquirePermission();
+        breaker.onResult(elapsedNanos, failed);
+    }
+
+    private static DatalabProperties properties() {
+        DatalabProperties properties = new DatalabProperties();
+        properties.getCircuitBreaker().setWindowSize(20);
+        properties.getCircuitBreaker().setMinimumCalls(10);
+        properties.getCircuitBreaker().setFailureRateThreshold(50);
+        properties.getCircuitBreaker().setSlowCallThreshold(Duration.ofSeconds(3));
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofSeconds(30));
+        properties.getCircuitBreaker().setHalfOpenCalls(2);
+        return properties;
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
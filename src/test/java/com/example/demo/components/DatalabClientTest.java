@@ -0,0 +1,147 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatalabClientTest {
+
+    private static final String RESPONSE = "{\"results\":[{\"title\":\"자바\",\"data\":[{\"period\":\"2024-01-01\",\"ratio\":100}]}]}";
+
+    private HttpServer server;
+    private final AtomicReference<String> lastRequest = new AtomicReference<>();
+    private final AtomicReference<String> lastClientId = new AtomicReference<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        server.createContext("/plain", exchange -> {
+            lastRequest.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            lastClientId.set(exchange.getRequestHeaders().getFirst("X-Naver-Client-Id"));
+            byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(RESPONSE.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, buffer.size());
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(buffer.toByteArray());
+            }
+        });
+
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void postSendsHeadersAndReturnsBody() {
+        DatalabClient client = client(properties("/plain", 4));
+
+        String body = client.post("{\"keyword\":\"자바\"}");
+
+        assertThat(body).isEqualTo(RESPONSE);
+        assertThat(lastRequest.get()).isEqualTo("{\"keyword\":\"자바\"}");
+        assertThat(lastClientId.get()).isEqualTo("test-id");
+        assertThat(client.getAvailablePermits()).isEqualTo(4);
+    }
+
+    @Test
+    void postDecodesGzipResponse() {
+        DatalabClient client = client(properties("/gzip", 4));
+
+        assertThat(client.post("{}")).isEqualTo(RESPONSE);
+    }
+
+    @Test
+    void postFailsWhenDeadlinePasses() {
+        DatalabClient client = client(properties("/slow", 4));
+
+        assertThatThrownBy(() -> client.post("{}", Duration.ofMillis(200)))
+                .isInstanceOf(DatalabException.class);
+        assertThat(client.getAvailablePermits()).isEqualTo(4);
+    }
+
+    @Test
+    void postFailsFastWhenInFlightLimitReached() throws Exception {
+        DatalabClient client = client(properties("/slow", 1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> pending = executor.submit(() -> client.post("{}"));
+            while (client.getAvailablePermits() > 0) {
+                Thread.sleep(10);
+            }
+
+            assertThatThrownBy(() -> client.post("{}"))
+                    .isInstanceOf(DatalabException.class)
+                    .hasMessageContaining("한도");
+
+            release.countDown();
+            pending.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DatalabClient client(DatalabProperties properties) {
+        Clock clock = Clock.systemDefaultZone();
+        return new DatalabClient(properties, new DatalabScheduler(properties, clock), new DatalabCircuitBreaker(properties, clock));
+    }
+
+    private DatalabProperties properties(String path, int maxInFlight) {
+        DatalabProperties properties = new DatalabProperties();
+        properties.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        properties.setClientId("test-id");
+        properties.setClientSecret("test-secret");
+        properties.setRequestTimeout(Duration.ofSeconds(3));
+        properties.setAcquireTimeout(Duration.ofMillis(50));
+        properties.setMaxInFlight(maxInFlight);
+        return properties;
+    }
+}
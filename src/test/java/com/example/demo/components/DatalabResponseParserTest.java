@@ -0,0 +1,52 @@
+package com.example.demo.components;
+
+import com.example.demo.member.dto.TrendSeries;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatalabResponseParserTest {
+
+    @Test
+    void parseReadsEachGroupIntoPrimitiveArrays() throws IOException {
+        String json = "{\"startDate\":\"2024-01-01\",\"endDate\":\"2024-01-02\",\"timeUnit\":\"date\",\"results\":["
+                + "{\"title\":\"자바\",\"keywords\":[\"자바\"],\"data\":[{\"period\":\"2024-01-01\",\"ratio\":12.5},{\"period\":\"2024-01-02\",\"ratio\":\"100\"}]},"
+                + "{\"title\":\"코틀린\",\"keywords\":[\"코틀린\"],\"data\":[]}]}";
+
+        List<TrendSeries> result = parse(json, List.of("자바", "코틀린", "스칼라"));
+
+        assertThat(result).extracting(TrendSeries::getKeyword).containsExactly("자바", "코틀린", "스칼라");
+        assertThat(result.get(0).getPeriod()).containsExactly(
+                (int) LocalDate.of(2024, 1, 1).toEpochDay(),
+                (int) LocalDate.of(2024, 1, 2).toEpochDay());
+        assertThat(result.get(0).getRatio()).containsExactly(12.5, 100.0);
+        assertThat(result.get(1).getPeriod()).isEmpty();
+        assertThat(result.get(2).getRatio()).isEmpty();
+    }
+
+    @Test
+    void parseThrowsErrorMessageWhenResultsMissing() {
+        assertThatThrownBy(() -> parse("{\"errorMessage\":\"Invalid parameter\",\"errorCode\":\"400\"}", List.of("자바")))
+                .isInstanceOf(DatalabException.class)
+                .hasMessageContaining("Invalid parameter");
+    }
+
+    @Test
+    void epochDayMatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.isBefore(LocalDate.of(2031, 1, 1)); date = date.plusDays(1)) {
+            char[] text = date.toString().toCharArray();
+            assertThat(DatalabResponseParser.epochDay(text, 0, text.length)).isEqualTo((int) date.toEpochDay());
+        }
+    }
+
+    private List<TrendSeries> parse(String json, List<String> keywords) throws IOException {
+        return DatalabResponseParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), keywords);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.components;
+
+import com.example.demo.components.DatalabScheduler.Priority;
+import com.example.demo.configuration.DatalabProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatalabSchedulerTest {
+
+    private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T10:00:00Z"));
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void quotaFailsFastWhenExhaustedAndRefillsAtMidnight() {
+        DatalabScheduler scheduler = new DatalabScheduler(properties(3, 0, 4, 4), clock);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.acquire(Priority.INTERACTIVE);
+            scheduler.release();
+        }
+        assertThat(scheduler.getRemainingQuota()).isZero();
+        assertThatThrownBy(() -> scheduler.acquire(Priority.INTERACTIVE))
+                .isInstanceOf(DatalabException.class)
+                .hasMessageContaining("모두 사용");
+
+        //서울 기준 자정(2024-03-01T15:00Z)이 지나면 다시 채워진다
+        clock.set(Instant.parse("2024-03-01T14:59:59Z"));
+        assertThat(scheduler.getRemainingQuota()).isZero();
+        clock.set(Instant.parse("2024-03-01T15:00:00Z"));
+        assertThat(scheduler.getRemainingQuota()).isEqualTo(3);
+        scheduler.acquire(Priority.INTERACTIVE);
+        scheduler.release();
+        assertThat(scheduler.getStats()).containsEntry("remaining", 2L).containsEntry("quotaExhaustedCount", 1L);
+    }
+
+    @Test
+    void backgroundLeavesReserveForInteractive() {
+        DatalabScheduler scheduler = new DatalabScheduler(properties(5, 2, 4, 4), clock);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.acquire(Priority.BACKGROUND);
+            scheduler.release();
+        }
+        assertThatThrownBy(() -> scheduler.acquire(Priority.BACKGROUND))
+                .isInstanceOf(DatalabException.class);
+
+        scheduler.acquire(Priority.INTERACTIVE);
+        scheduler.release();
+        assertThat(scheduler.getRemainingQuota()).isEqualTo(1);
+    }
+
+    @Test
+    void interactiveWaitersAreServedBeforeBackground() throws Exception {
+        DatalabScheduler scheduler = new DatalabScheduler(properties(100, 0, 1, 4), clock);
+        List<Priority> order = new CopyOnWriteArrayList<>();
+
+        scheduler.acquire(Priority.INTERACTIVE);
+        Future<?> background = executor.submit(() -> run(scheduler, Priority.BACKGROUND, order));
+        awaitQueued(scheduler, 1);
+        Future<?> interactive = executor.submit(() -> run(scheduler, Priority.INTERACTIVE, order));
+        awaitQueued(scheduler, 2);
+
+        scheduler.release();
+        background.get(5, TimeUnit.SECONDS);
+        interactive.get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly(Priority.INTERACTIVE, Priority.BACKGROUND);
+        assertThat(scheduler.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueFailsFast() throws Exception {
+        DatalabScheduler scheduler = new DatalabScheduler(properties(100, 0, 1, 1), clock);
+
+        scheduler.acquire(Priority.INTERACTIVE);
+        Future<?> waiting = executor.submit(() -> run(scheduler, Priority.INTERACTIVE, new CopyOnWriteArrayList<>()));
+        awaitQueued(scheduler, 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> scheduler.acquire(Priority.INTERACTIVE))
+                .isInstanceOf(DatalabException.class)
+                .hasMessageContaining("대기열");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(500));
+
+        scheduler.release();
+        waiting.get(5, TimeUnit.SECONDS);
+        assertThat(scheduler.getStats()).containsEntry("queueFullCount", 1L);
+    }
+
+    private static void run(DatalabScheduler scheduler, Priority priority, List<Priority> order) {
+        scheduler.acquire(priority);
+        order.add(priority);
+        scheduler.release();
+    }
+
+    private static void awaitQueued(DatalabScheduler scheduler, int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Integer.valueOf(queued).equals(scheduler.getStats().get("queued"))) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static DatalabProperties properties(long dailyLimit, long backgroundReserve, int maxInFlight, int maxQueue) {
+        DatalabProperties properties = new DatalabProperties();
+        properties.setMaxInFlight(maxInFlight);
+        properties.setAcquireTimeout(Duration.ofSeconds(5));
+        properties.getQuota().setDailyLimit(dailyLimit);
+        properties.getQuota().setBackgroundReserve(backgroundReserve);
+        properties.getQuota().setMaxQueue(maxQueue);
+        properties.getQuota().setZone(SEOUL.getId());
+        return properties;
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return SEOUL;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
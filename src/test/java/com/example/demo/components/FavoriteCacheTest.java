@@ -0,0 +1,109 @@
+package com.example.demo.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FavoriteCacheTest {
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T00:00:00Z"));
+
+    @Test
+    void loadsOncePerUserUntilEvicted() {
+        FavoriteCache cache = new FavoriteCache(clock, 10, 30_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get("user", userId -> {
+                loads.incrementAndGet();
+                return List.of("url" + loads.get());
+            })).containsExactly("url1");
+        }
+        assertThat(loads).hasValue(1);
+
+        cache.evict("user");
+        assertThat(cache.get("user", userId -> List.of("changed"))).containsExactly("changed");
+        assertThat(cache.getStats()).containsEntry("hitCount", 2L).containsEntry("missCount", 2L);
+    }
+
+    @Test
+    void valueReadBeforeEvictIsNotCached() {
+        FavoriteCache cache = new FavoriteCache(clock, 10, 30_000);
+
+        //읽는 도중에 즐겨찾기가 바뀌면 읽은 값은 이번 요청에만 쓰고 담지 않는다
+        List<String> stale = cache.get("user", userId -> {
+            cache.evict(userId);
+            return List.of("old");
+        });
+        assertThat(stale).containsExactly("old");
+        assertThat(cache.get("user", userId -> List.of("new"))).containsExactly("new");
+    }
+
+    @Test
+    void otherUsersEvictDoesNotBlockCaching() {
+        FavoriteCache cache = new FavoriteCache(clock, 10, 30_000);
+
+        cache.get("user", userId -> {
+            cache.evict("other");
+            return List.of("url");
+        });
+        assertThat(cache.get("user", userId -> List.of("reloaded"))).containsExactly("url");
+        assertThat(cache.getStats()).containsEntry("hitCount", 1L);
+    }
+
+    @Test
+    void reloadsAfterTtlForChangesMadeOnOtherNodes() {
+        FavoriteCache cache = new FavoriteCache(clock, 10, 30_000);
+        cache.get("user", userId -> List.of("old"));
+
+        //다른 서버에서 바꾼 즐겨찾기는 이 서버의 evict 없이 ttl 뒤에 반영된다
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(cache.get("user", userId -> List.of("new"))).containsExactly("new");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUser() {
+        FavoriteCache cache = new FavoriteCache(clock, 2, 30_000);
+        cache.get("a", userId -> List.of("a"));
+        cache.get("b", userId -> List.of("b"));
+        cache.get("a", userId -> List.of("reloaded"));
+        cache.get("c", userId -> List.of("c"));
+
+        assertThat(cache.get("a", userId -> List.of("reloaded"))).containsExactly("a");
+        assertThat(cache.get("b", userId -> List.of("reloaded"))).containsExactly("reloaded");
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T00:00:00Z"));
+
+    @Test
+    void rejectsUsernameOverFailureLimitUntilWindowSlides() {
+        LoginThrottle throttle = new LoginThrottle(properties(3, 100, 1000), clock);
+
+        for (int i = 0; i < 3; i++) {
+            fail(throttle, "User@Test.com", "10.0.0." + i);
+        }
+        //대소문자/공백만 다른 아이디도 같은 아이디로 센다
+        assertThat(throttle.isAllowed(" user@test.com", "10.0.0.9")).isFalse();
+        assertThat(throttle.isAllowed("other@test.com", "10.0.0.9")).isTrue();
+
+        //다음 구간의 절반 : 앞 구간 3회의 절반(1.5)만 남으므로 두 번 더 실패할 수 있다
+        clock.advance(Duration.ofSeconds(90));
+        fail(throttle, "user@test.com", "10.0.0.1");
+        fail(throttle, "user@test.com", "10.0.0.1");
+        assertThat(throttle.isAllowed("user@test.com", "10.0.0.1")).isFalse();
+
+        assertThat(throttle.getStats())
+                .containsEntry("failureCount", 5L)
+                .containsEntry("usernameRejectedCount", 2L);
+    }
+
+    @Test
+    void successfulLoginsAreNotCounted() {
+        LoginThrottle throttle = new LoginThrottle(properties(3, 3, 1000), clock);
+
+        //한 주소(NAT 뒤의 여러 사용자 등)에서 성공한 로그인은 한도와 관계없다
+        for (int i = 0; i < 20; i++) {
+            assertThat(throttle.isAllowed("user" + i + "@test.com", "10.0.0.1")).isTrue();
+        }
+        assertThat(throttle.getStats()).containsEntry("failureCount", 0L).containsEntry("addressRejectedCount", 0L);
+    }
+
+    @Test
+    void rejectsAddressOverLimitWithoutCountingUsername() {
+        LoginThrottle throttle = new LoginThrottle(properties(100, 2, 1000), clock);
+
+        fail(throttle, "a@test.com", "10.0.0.1");
+        fail(throttle, "b@test.com", "10.0.0.1");
+        assertThat(throttle.isAllowed("c@test.com", "10.0.0.1")).isFalse();
+        assertThat(throttle.isAllowed("c@test.com", "10.0.0.2")).isTrue();
+
+        assertThat(throttle.getStats()).containsEntry("addressRejectedCount", 1L);
+    }
+
+    @Test
+    void retryAfterFollowsSlidingEstimate() {
+        LoginThrottle throttle = new LoginThrottle(properties(4, 100, 1000), clock);
+
+        //이번 구간에서만 4회 : 다음 구간이 시작된 직후에 추정 횟수가 4 아래로 내려간다
+        for (int i = 0; i < 4; i++) {
+            fail(throttle, "user@test.com", "10.0.0.1");
+        }
+        clock.advance(Duration.ofSeconds(20));
+        assertThat(throttle.isAllowed("user@test.com", "10.0.0.1")).isFalse();
+        assertThat(throttle.getRetryAfterSeconds("user@test.com", "10.0.0.1")).isEqualTo(41);
+
+        //다음 구간 20초 : 앞 구간 4회 * 2/3 + 이번 구간 2회 = 4.67.
+        //구간이 끝날 때(40초 뒤)가 아니라 앞 구간 비율이 1/2 아래가 되는 10초 뒤부터 다시 시도할 수 있다
+        clock.advance(Duration.ofSeconds(60));
+        fail(throttle, "user@test.com", "10.0.0.1");
+        fail(throttle, "user@test.com", "10.0.0.1");
+        assertThat(throttle.isAllowed("user@test.com", "10.0.0.1")).isFalse();
+        assertThat(throttle.getRetryAfterSeconds("user@test.com", "10.0.0.1")).isEqualTo(11);
+
+        clock.advance(Duration.ofSeconds(11));
+        assertThat(throttle.isAllowed("user@test.com", "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void keepsKeyCountBounded() {
+        LoginThrottle throttle = new LoginThrottle(properties(100, 100, 128), clock);
+
+        for (int i = 0; i < 10_000; i++) {
+            throttle.recordFailure("user" + i + "@test.com", "10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        assertThat((Long) throttle.getStats().get("keys")).isLessThanOrEqualTo(128L);
+        assertThat((Long) throttle.getStats().get("evictionCount")).isGreaterThan(0L);
+    }
+
+    private static void fail(LoginThrottle throttle, String username, String address) {
+        assertThat(throttle.isAllowed(username, address)).isTrue();
+        throttle.recordFailure(username, address);
+    }
+
+    private static MemberProperties properties(int perUsername, int perAddress, int maxKeys) {
+        MemberProperties properties = new MemberProperties();
+        properties.getLogin().setWindow(Duration.ofMinutes(1));
+        properties.getLogin().setMaxAttemptsPerUsername(perUsername);
+        properties.getLogin().setMaxAttemptsPerAddress(perAddress);
+        properties.getLogin().setMaxKeys(maxKeys);
+        return properties;
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
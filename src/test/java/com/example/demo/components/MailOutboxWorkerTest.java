@@ -0,0 +1,220 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.entity.MailOutbox;
+import com.example.demo.member.repository.MailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 로컬 포트에 띄운 간단한 SMTP 서버로 실제 JavaMailSenderImpl 을 통해 보내 본다.
+ */
+class MailOutboxWorkerTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T00:00:00Z");
+
+    private final Clock clock = Clock.fixed(NOW, ZoneId.of("UTC"));
+    private final MailOutboxRepository repository = mock(MailOutboxRepository.class);
+    private FakeSmtpServer smtp;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new FakeSmtpServer("bounce@test.com");
+        when(repository.claim(any(), anyLong(), anyLong())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void sendsBatchOverOneConnectionAndDeletesSentRows() {
+        List<MailOutbox> due = List.of(mail(1L, "a@test.com"), mail(2L, "b@test.com"), mail(3L, "c@test.com"));
+        when(repository.findDue(eq(MailOutbox.Status.PENDING), eq(NOW.toEpochMilli()), any()))
+                .thenReturn(due, List.of());
+
+        MailOutboxWorker worker = worker(3);
+        int sent = worker.drain();
+
+        assertThat(sent).isEqualTo(3);
+        assertThat(smtp.connections.get()).isEqualTo(1);
+        assertThat(smtp.recipients).containsExactly("a@test.com", "b@test.com", "c@test.com");
+        verify(repository).deleteAllInBatch(due);
+        assertThat(worker.getStats()).containsEntry("sentCount", 3L).containsEntry("batchCount", 1L);
+    }
+
+    @Test
+    void retriesOnlyFailedMailWithBackoffThenDeadLetters() {
+        MailOutbox ok = mail(1L, "a@test.com");
+        MailOutbox bounce = mail(2L, "bounce@test.com");
+        when(repository.findDue(eq(MailOutbox.Status.PENDING), eq(NOW.toEpochMilli()), any()))
+                .thenReturn(List.of(ok, bounce), List.of());
+
+        MailOutboxWorker worker = worker(2);
+        assertThat(worker.drain()).isEqualTo(1);
+
+        //첫 실패 : initialBackoff(30s) 뒤에 다시 보낸다
+        verify(repository).deleteAllInBatch(List.of(ok));
+        assertThat(bounce.getAttempts()).isEqualTo(1);
+        assertThat(bounce.getStatus()).isEqualTo(MailOutbox.Status.PENDING);
+        assertThat(bounce.getNextAttemptAt()).isEqualTo(NOW.toEpochMilli() + 30_000);
+        assertThat(bounce.getLastError()).isNotBlank();
+
+        //maxAttempts(3) 번째 실패 : 더 보내지 않고 DEAD 로 남긴다
+        bounce.setAttempts(2);
+        when(repository.findDue(eq(MailOutbox.Status.PENDING), eq(NOW.toEpochMilli()), any()))
+                .thenReturn(List.of(bounce), List.of());
+        worker.drain();
+
+        assertThat(bounce.getStatus()).isEqualTo(MailOutbox.Status.DEAD);
+        assertThat(worker.getStats()).containsEntry("retryCount", 1L).containsEntry("deadCount", 1L);
+    }
+
+    @Test
+    void backoffDoublesUpToMax() {
+        MailOutboxWorker worker = worker(1);
+
+        assertThat(worker.backoffMillis(1)).isEqualTo(30_000);
+        assertThat(worker.backoffMillis(2)).isEqualTo(60_000);
+        assertThat(worker.backoffMillis(4)).isEqualTo(240_000);
+        assertThat(worker.backoffMillis(40)).isEqualTo(Duration.ofHours(1).toMillis());
+    }
+
+    private MailOutboxWorker worker(int batchSize) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtp.getPort());
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.localhost", "localhost");
+        properties.setProperty("mail.smtp.timeout", "5000");
+        sender.setJavaMailProperties(properties);
+
+        MemberProperties memberProperties = new MemberProperties();
+        memberProperties.getMail().setFrom("noreply@test.com");
+        memberProperties.getMail().setBatchSize(batchSize);
+        memberProperties.getMail().setMaxAttempts(3);
+        return new MailOutboxWorker(repository, sender, memberProperties, clock);
+    }
+
+    private static MailOutbox mail(Long id, String recipient) {
+        return MailOutbox.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("제목")
+                .text("<p>본문</p>")
+                .status(MailOutbox.Status.PENDING)
+                .nextAttemptAt(NOW.toEpochMilli())
+                .build();
+    }
+
+    /**
+     * 메일 내용은 버리고 연결 수와 받는 사람만 기록하는 SMTP 서버. rejected 주소는 RCPT 에서 거절한다.
+     */
+    private static class FakeSmtpServer implements AutoCloseable {
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final String rejected;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+        private final List<Socket> sockets = new ArrayList<>();
+
+        private FakeSmtpServer(String rejected) throws IOException {
+            this.rejected = rejected;
+            Thread thread = new Thread(this::accept, "fake-smtp");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    synchronized (sockets) {
+                        sockets.add(socket);
+                    }
+                    handle(socket);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            reply(out, "220 localhost");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase(Locale.ROOT);
+                if (command.startsWith("RCPT TO:")) {
+                    String recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    if (recipient.equals(rejected)) {
+                        reply(out, "550 no such user");
+                    } else {
+                        recipients.add(recipient);
+                        reply(out, "250 OK");
+                    }
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 go ahead");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        //본문은 버린다
+                    }
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 bye");
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            synchronized (sockets) {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailTemplatesTest {
+
+    @Test
+    void rendersRecipientFieldsIntoCompiledTemplate() {
+        MailTemplates templates = new MailTemplates(templateEngine(), properties("https://demo.example.com"));
+
+        String html = templates.render(MailTemplate.SIGNUP, "홍길동", "key-1");
+
+        assertThat(html)
+                .contains("홍길동")
+                .contains("href=\"https://demo.example.com/member/email-auth?id=key-1\"")
+                .doesNotContain("localhost")
+                .doesNotContain("@@");
+    }
+
+    @Test
+    void escapesValuesAndCompilesEachTemplateOnce() {
+        MailTemplates templates = new MailTemplates(templateEngine(), properties("http://localhost:8080"));
+
+        String first = templates.render(MailTemplate.RESET_PASSWORD, "<b>a&b</b>", "key 1");
+        String second = templates.render(MailTemplate.RESET_PASSWORD, "other", "key-2");
+        templates.render(MailTemplate.SIGNUP, "other", "key-3");
+
+        assertThat(first)
+                .contains("&lt;b&gt;a&amp;b&lt;/b&gt;")
+                .contains("/member/reset/password?id=key%201");
+        assertThat(second).contains("other").contains("id=key-2").doesNotContain("key%201");
+        assertThat(templates.getStats())
+                .containsEntry("compileCount", 2L)
+                .containsEntry("renderCount", 3L);
+    }
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    private static MemberProperties properties(String baseUrl) {
+        MemberProperties properties = new MemberProperties();
+        properties.getMail().setBaseUrl(baseUrl);
+        return properties;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.entity.MemberToken;
+import com.example.demo.member.repository.MemberTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberTokensTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T00:00:00Z");
+
+    private final Clock clock = Clock.fixed(NOW, ZoneId.of("UTC"));
+    private final MemberTokenRepository repository = mock(MemberTokenRepository.class);
+    private final MemberTokens memberTokens = new MemberTokens(repository, properties(), clock);
+
+    @Test
+    void storesOnlyFixedWidthHashWithExpiry() {
+        String token = memberTokens.issue("user@test.com", MemberToken.Purpose.RESET_PASSWORD);
+
+        ArgumentCaptor<MemberToken> saved = ArgumentCaptor.forClass(MemberToken.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getTokenHash())
+                .hasSize(64)
+                .isEqualTo(MemberTokens.hash(token))
+                .doesNotContain(token);
+        assertThat(saved.getValue().getExpiresAt()).isEqualTo(NOW.plus(Duration.ofDays(1)).toEpochMilli());
+    }
+
+    @Test
+    void consumesOnlyOnce() {
+        String hash = MemberTokens.hash("key-1");
+        MemberToken stored = MemberToken.builder()
+                .tokenHash(hash)
+                .userId("user@test.com")
+                .purpose(MemberToken.Purpose.EMAIL_AUTH)
+                .expiresAt(NOW.toEpochMilli() + 1000)
+                .build();
+        when(repository.findByTokenHash(hash)).thenReturn(Optional.of(stored));
+        when(repository.consume(hash, MemberToken.Purpose.EMAIL_AUTH, NOW.toEpochMilli())).thenReturn(1, 0);
+
+        assertThat(memberTokens.consume("key-1", MemberToken.Purpose.EMAIL_AUTH)).contains("user@test.com");
+        assertThat(memberTokens.consume("key-1", MemberToken.Purpose.EMAIL_AUTH)).isEmpty();
+        assertThat(memberTokens.consume("", MemberToken.Purpose.EMAIL_AUTH)).isEmpty();
+        assertThat(memberTokens.getStats())
+                .containsEntry("consumedCount", 1L)
+                .containsEntry("rejectedCount", 2L);
+    }
+
+    @Test
+    void findRejectsOtherPurposeAndExpiredTokens() {
+        String hash = MemberTokens.hash("key-1");
+        MemberToken stored = MemberToken.builder()
+                .tokenHash(hash)
+                .userId("user@test.com")
+                .purpose(MemberToken.Purpose.RESET_PASSWORD)
+                .expiresAt(NOW.toEpochMilli() + 1000)
+                .build();
+        when(repository.findByTokenHash(hash)).thenReturn(Optional.of(stored));
+
+        assertThat(memberTokens.find("key-1", MemberToken.Purpose.RESET_PASSWORD)).contains("user@test.com");
+        assertThat(memberTokens.find("key-1", MemberToken.Purpose.EMAIL_AUTH)).isEmpty();
+
+        stored.setExpiresAt(NOW.toEpochMilli());
+        assertThat(memberTokens.find("key-1", MemberToken.Purpose.RESET_PASSWORD)).isEmpty();
+    }
+
+    @Test
+    void sweepsExpiredRowsInBoundedBatches() {
+        when(repository.findExpiredIds(eq(NOW.toEpochMilli()), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+
+        assertThat(memberTokens.sweep()).isEqualTo(5);
+
+        verify(repository, times(3)).findExpiredIds(anyLong(), any());
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(5L));
+        assertThat(memberTokens.getStats()).containsEntry("purgedCount", 5L);
+    }
+
+    private static MemberProperties properties() {
+        MemberProperties properties = new MemberProperties();
+        properties.getToken().setSweepBatchSize(2);
+        return properties;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.MemberProperties;
+import com.example.demo.member.model.MemberUser;
+import com.example.demo.member.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberUserCacheTest {
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T00:00:00Z"));
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        when(memberRepository.findCredentialsVersion(anyString())).thenReturn(Optional.of(0L));
+    }
+
+    @Test
+    void cachedUserSurvivesEraseCredentialsAndExpiresAfterTtl() {
+        MemberUserCache cache = new MemberUserCache(memberRepository, properties(10), clock);
+        User user = (User) user("hash");
+        cache.putUserInCache(user);
+
+        //로그인 후 ProviderManager 가 비밀번호를 지워도 캐시의 값은 그대로다
+        user.eraseCredentials();
+        assertThat(cache.getUserFromCache("user@test.com").getPassword()).isEqualTo("hash");
+
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(cache.getUserFromCache("user@test.com")).isNull();
+        assertThat(cache.getStats())
+                .containsEntry("hitCount", 1L)
+                .containsEntry("missCount", 1L)
+                .containsEntry("hitRate", 0.5);
+    }
+
+    @Test
+    void removedUserIsNotCachedAgainByLoginInProgress() {
+        MemberUserCache cache = new MemberUserCache(memberRepository, properties(10), clock);
+        cache.putUserInCache(user("old"));
+
+        cache.removeUserFromCache("user@test.com");
+        //지우기 전에 DB 에서 읽은 값이 뒤늦게 담기는 경우
+        cache.putUserInCache(user("old"));
+        assertThat(cache.getUserFromCache("user@test.com")).isNull();
+
+        clock.advance(Duration.ofSeconds(10));
+        cache.putUserInCache(user("new"));
+        assertThat(cache.getUserFromCache("user@test.com").getPassword()).isEqualTo("new");
+    }
+
+    @Test
+    void hitsWithinRecheckDoNotReadVersion() {
+        MemberUserCache cache = new MemberUserCache(memberRepository, properties(10), clock);
+        cache.putUserInCache(user("hash"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.getUserFromCache("user@test.com")).isNotNull();
+        }
+        verify(memberRepository, never()).findCredentialsVersion(anyString());
+
+        //recheck 가 지나면 한 번 확인하고, 다시 recheck 동안은 읽지 않는다
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(cache.getUserFromCache("user@test.com")).isNotNull();
+        assertThat(cache.getUserFromCache("user@test.com")).isNotNull();
+        verify(memberRepository, times(1)).findCredentialsVersion("user@test.com");
+        assertThat(cache.getStats()).containsEntry("versionCheckCount", 1L).containsEntry("hitCount", 5L);
+    }
+
+    @Test
+    void userChangedOnAnotherNodeIsReloadedAfterRecheck() {
+        MemberUserCache cache = new MemberUserCache(memberRepository, properties(10), clock);
+        cache.putUserInCache(user("old"));
+
+        //다른 서버에서 비밀번호를 바꾸면 이 서버의 removeUserFromCache 는 불리지 않고 버전만 올라간다
+        when(memberRepository.findCredentialsVersion("user@test.com")).thenReturn(Optional.of(1L));
+        assertThat(cache.getUserFromCache("user@test.com")).isNotNull();
+
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(cache.getUserFromCache("user@test.com")).isNull();
+        assertThat(cache.getStats()).containsEntry("staleCount", 1L).containsEntry("entries", 0);
+
+        //탈퇴한 회원도 다시 읽게 한다
+        cache.putUserInCache(user("old"));
+        when(memberRepository.findCredentialsVersion("user@test.com")).thenReturn(Optional.empty());
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(cache.getUserFromCache("user@test.com")).isNull();
+    }
+
+    @Test
+    void userWithoutVersionIsNotCached() {
+        MemberUserCache cache = new MemberUserCache(memberRepository, properties(10), clock);
+        cache.putUserInCache(User.withUsername("user@test.com").password("hash").roles("USER").build());
+
+        assertThat(cache.getUserFromCache("user@test.com")).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUser() {
+        MemberUserCache cache = new MemberUserCache(memberRepository, properties(1), clock);
+        cache.putUserInCache(user("hash"));
+        cache.putUserInCache(new MemberUser("other@test.com", "hash", AuthorityUtils.createAuthorityList("ROLE_USER"), 0));
+
+        assertThat(cache.getUserFromCache("user@test.com")).isNull();
+        assertThat(cache.getUserFromCache("other@test.com")).isNotNull();
+        assertThat(cache.getStats()).containsEntry("evictionCount", 1L);
+    }
+
+    private static UserDetails user(String password) {
+        return new MemberUser("user@test.com", password, AuthorityUtils.createAuthorityList("ROLE_USER"), 0);
+    }
+
+    private static MemberProperties properties(int maxEntries) {
+        MemberProperties properties = new MemberProperties();
+        properties.getUserCache().setMaxEntries(maxEntries);
+        properties.getUserCache().setTtl(Duration.ofMinutes(5));
+        properties.getUserCache().setRecheck(Duration.ofSeconds(10));
+        return properties;
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.model.TrendQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 오늘은 2024-03-01 (UTC) 이다.
+ */
+class TrendCacheTest {
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T00:00:00Z"));
+
+    @Test
+    void rangeEndingTodayExpiresBeforeClosedRange() {
+        TrendCache cache = cache(Long.MAX_VALUE);
+        TrendQuery recent = query("a", "2024-02-20", "2024-03-01");
+        TrendQuery historical = query("a", "2024-01-01", "2024-01-10");
+        TrendChart recentChart = chart("a");
+        TrendChart historicalChart = chart("a");
+        cache.put(recent, recentChart);
+        cache.put(historical, historicalChart);
+
+        clock.advance(Duration.ofMinutes(9));
+        assertThat(cache.get(recent)).isSameAs(recentChart);
+
+        //오늘까지 걸친 기간은 recentTtl(10분), 지난 기간은 historicalTtl(24시간)
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(cache.get(recent)).isNull();
+        assertThat(cache.get(historical)).isSameAs(historicalChart);
+
+        clock.advance(Duration.ofHours(24));
+        assertThat(cache.get(historical)).isNull();
+        assertThat(cache.getStats())
+                .containsEntry("hitCount", 2L)
+                .containsEntry("missCount", 2L)
+                .containsEntry("expiredCount", 2L);
+    }
+
+    @Test
+    void expiredValueIsKeptForGetStaleUntilStaleTtl() {
+        TrendCache cache = cache(Long.MAX_VALUE);
+        TrendQuery recent = query("a", "2024-02-20", "2024-03-01");
+        TrendChart chart = chart("a");
+        cache.put(recent, chart);
+
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(cache.get(recent)).isNull();
+        assertThat(cache.getStale(recent)).isSameAs(chart);
+        assertThat(cache.getStats()).containsEntry("size", 1).containsEntry("staleHitCount", 1L);
+
+        //유효 시간이 끝난 뒤 staleTtl(7일)이 지나면 지난 값도 지운다
+        clock.advance(Duration.ofDays(7));
+        assertThat(cache.getStale(recent)).isNull();
+        assertThat(cache.get(recent)).isNull();
+        assertThat(cache.getStats())
+                .containsEntry("size", 0)
+                .containsEntry("bytes", 0L)
+                .containsEntry("staleHitCount", 1L);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOverMaxBytes() {
+        //항목 하나가 492 바이트 (키 128 + 검색어 50 + 응답 314)
+        TrendCache cache = cache(1000);
+        TrendQuery a = query("a", "2024-01-01", "2024-01-10");
+        TrendQuery b = query("b", "2024-01-01", "2024-01-10");
+        TrendQuery c = query("c", "2024-01-01", "2024-01-10");
+        cache.put(a, chart("a"));
+        cache.put(b, chart("b"));
+        assertThat(cache.get(a)).isNotNull();
+
+        cache.put(c, chart("c"));
+
+        assertThat(cache.get(b)).isNull();
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(cache.get(c)).isNotNull();
+        assertThat(cache.getStats())
+                .containsEntry("size", 2)
+                .containsEntry("bytes", 984L)
+                .containsEntry("evictionCount", 1L);
+    }
+
+    @Test
+    void replacedEntryIsNotCountedTwice() {
+        TrendCache cache = cache(1000);
+        TrendQuery a = query("a", "2024-01-01", "2024-01-10");
+        cache.put(a, chart("a"));
+        TrendChart replaced = chart("a");
+        cache.put(a, replaced);
+
+        assertThat(cache.get(a)).isSameAs(replaced);
+        assertThat(cache.getStats())
+                .containsEntry("size", 1)
+                .containsEntry("bytes", 492L)
+                .containsEntry("evictionCount", 0L);
+    }
+
+    private TrendCache cache(long maxBytes) {
+        DatalabProperties properties = new DatalabProperties();
+        properties.getCache().setMaxBytes(maxBytes);
+        properties.getCache().setRecentTtl(Duration.ofMinutes(10));
+        properties.getCache().setHistoricalTtl(Duration.ofHours(24));
+        properties.getCache().setStaleTtl(Duration.ofDays(7));
+        return new TrendCache(properties, clock);
+    }
+
+    private static TrendQuery query(String keyword, String startDate, String endDate) {
+        return TrendQuery.of(List.of(keyword), TrendInput.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .timeUnit("date")
+                .build());
+    }
+
+    //10일치 값
+    private static TrendChart chart(String keyword) {
+        int[] period = new int[10];
+        double[] values = new double[10];
+        for (int i = 0; i < period.length; i++) {
+            period[i] = 19723 + i;
+            values[i] = 100;
+        }
+        return TrendChart.of(period, List.of(keyword), new double[][]{values});
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.components;
+
+import com.example.demo.member.dto.TrendChart;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendReducerTest {
+
+    @Test
+    void rollupSumsDaysIntoWeeksStartingAtQueryStart() {
+        //2024-01-03(수) ~ 2024-01-14(일) : 첫 주는 조회 시작일부터, 다음 주는 월요일(01-08)부터
+        int start = day(2024, 1, 3);
+        int[] period = new int[12];
+        double[] a = new double[12];
+        double[] b = new double[12];
+        for (int i = 0; i < 12; i++) {
+            period[i] = start + i;
+            a[i] = 10;
+            b[i] = i < 5 ? 5 : Double.NaN;
+        }
+        TrendChart daily = TrendChart.of(period, List.of("a", "b"), new double[][]{a, b});
+
+        TrendChart weekly = TrendReducer.rollup(daily, TrendReducer.WEEK, start);
+
+        assertThat(weekly.getPeriod()).containsExactly(start, day(2024, 1, 8));
+        //a = 50, 70 / b = 25, 없음 -> 최댓값 70 이 100
+        assertThat(weekly.getRatio(0)[0]).isCloseTo(50 * 100 / 70.0, within(1e-9));
+        assertThat(weekly.getRatio(0)[1]).isEqualTo(100.0);
+        assertThat(weekly.getRatio(1)[0]).isCloseTo(25 * 100 / 70.0, within(1e-9));
+        assertThat(weekly.getRatio(1)[1]).isNaN();
+    }
+
+    @Test
+    void rollupGroupsByCalendarMonth() {
+        int start = day(2024, 1, 30);
+        int[] period = {start, start + 1, start + 2, start + 3};
+        TrendChart daily = TrendChart.of(period, List.of("a"), new double[][]{{1, 1, 4, 4}});
+
+        TrendChart monthly = TrendReducer.rollup(daily, TrendReducer.MONTH, start);
+
+        assertThat(monthly.getPeriod()).containsExactly(start, day(2024, 2, 1));
+        assertThat(monthly.getRatio(0)).containsExactly(25.0, 100.0);
+    }
+
+    @Test
+    void downsampleKeepsEndpointsAndPeaksOnSharedAxis() {
+        int length = 3_000;
+        int[] period = new int[length];
+        double[] a = new double[length];
+        double[] b = new double[length];
+        for (int i = 0; i < length; i++) {
+            period[i] = i;
+            a[i] = 10 + Math.sin(i / 50.0);
+            b[i] = 5;
+        }
+        a[1234] = 100;
+        b[2500] = 80;
+        TrendChart chart = TrendChart.of(period, List.of("a", "b"), new double[][]{a, b});
+
+        TrendChart reduced = TrendReducer.downsample(chart, 200);
+
+        assertThat(reduced.getPeriod()).hasSize(200).startsWith(0).endsWith(length - 1).contains(1234, 2500);
+        assertThat(reduced.getRatio(0)).hasSize(200).contains(100.0);
+        assertThat(reduced.getRatio(1)).hasSize(200).contains(80.0);
+        assertThat(reduced.getKeywords()).containsExactly("a", "b");
+    }
+
+    @Test
+    void downsampleLeavesShortSeriesAlone() {
+        TrendChart chart = TrendChart.of(new int[]{1, 2, 3}, List.of("a"), new double[][]{{1, 2, 3}});
+
+        assertThat(TrendReducer.downsample(chart, 10)).isSameAs(chart);
+    }
+
+    private static int day(int year, int month, int day) {
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.model.TrendQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrendSingleFlightTest {
+
+    private static final Duration LONG = Duration.ofSeconds(5);
+
+    private final TrendSingleFlight singleFlight = new TrendSingleFlight(new DatalabProperties());
+    private final TrendQuery trendQuery = TrendQuery.of(List.of("a"), TrendInput.builder()
+            .startDate("2024-01-01")
+            .endDate("2024-01-31")
+            .timeUnit("date")
+            .build());
+    private final TrendChart loaded = TrendChart.of(new int[]{19723}, List.of("a"), new double[][]{{100}});
+
+    @AfterEach
+    void tearDown() {
+        singleFlight.shutdown();
+    }
+
+    @Test
+    void interruptedLeaderDoesNotFailCollapsedCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        AtomicReference<RuntimeException> leaderError = new AtomicReference<>();
+        Thread leader = new Thread(() -> {
+            try {
+                singleFlight.execute(trendQuery, () -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return loaded;
+                }, LONG);
+            } catch (RuntimeException e) {
+                leaderError.set(e);
+            }
+        });
+        leader.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //처음 호출한 쪽이 중단되어도 조회는 계속된다
+        leader.interrupt();
+        leader.join(5_000);
+        assertThat(leaderError.get()).isInstanceOf(DatalabException.class);
+        assertThat(singleFlight.getStats()).containsEntry("inFlight", 1);
+
+        CompletableFuture<TrendChart> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(trendQuery, () -> {
+            loads.incrementAndGet();
+            return TrendChart.failed(List.of("a"), "두 번째 조회");
+        }, LONG));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!singleFlight.getStats().get("collapsedCount").equals(1L) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        TrendChart result = follower.get(5, TimeUnit.SECONDS);
+        assertThat(result).isSameAs(loaded);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void callerTimeoutDoesNotCancelLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> singleFlight.execute(trendQuery, () -> {
+            await(release);
+            finished.countDown();
+            return loaded;
+        }, Duration.ofMillis(1)))
+                .isInstanceOf(DatalabException.class);
+
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(singleFlight.getStats()).containsEntry("timeoutCount", 1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.components;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.model.TrendQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 날짜는 2024년의 몇 번째 날인지로 쓴다. (1 = 1월 1일, 32 = 2월 1일, 오늘 = 61 = 3월 1일)
+ */
+class TrendStoreTest {
+
+    private static final LocalDate BEFORE_JAN_1 = LocalDate.of(2023, 12, 31);
+
+    @TempDir
+    Path directory;
+
+    private final FakeClock clock = new FakeClock(Instant.parse("2024-03-01T00:00:00Z"));
+
+    @Test
+    void writtenRangeIsReadBackScaledToTheRequest() {
+        TrendStore store = store(8, Long.MAX_VALUE);
+        store.write(query("a", 1, 3), chart("a", 1, 50, 100, 25));
+
+        assertThat(store.read(query("a", 1, 3)).getRatio(0)).containsExactly(50, 100, 25);
+        //요청 기간 안의 최댓값이 다시 100 이 된다
+        assertThat(store.read(query("a", 3, 3)).getRatio(0)).containsExactly(100);
+        assertThat(store.read(query("a", 1, 4))).isNull();
+    }
+
+    @Test
+    void missingRangeIsRescaledThroughAnchorDays() {
+        TrendStore store = store(8, Long.MAX_VALUE);
+        store.write(query("a", 1, 10), chart("a", 1, repeat(10, 100)));
+
+        List<TrendQuery> parts = store.plan(query("a", 1, 20));
+        assertThat(parts).containsExactly(query("a", 4, 20));
+
+        //받은 기간의 최댓값이 100 이라서 겹치는 4~10일은 저장된 값의 절반으로 온다
+        store.write(parts.get(0), chart("a", 4, concat(repeat(7, 50), repeat(10, 100))));
+
+        assertThat(store.read(query("a", 1, 20)).getRatio(0)).containsExactly(concat(repeat(10, 50), repeat(10, 100)));
+    }
+
+    @Test
+    void nonOverlappingWriteKeepsStoredRangeUntilJoined() {
+        TrendStore store = store(8, Long.MAX_VALUE);
+        store.write(query("a", 1, 10), chart("a", 1, repeat(10, 100)));
+        store.write(query("a", 32, 41), chart("a", 32, repeat(10, 100)));
+
+        //겹치는 날이 없어도 먼저 저장한 기간은 남는다
+        assertThat(store.read(query("a", 1, 10))).isNotNull();
+        assertThat(store.read(query("a", 32, 41))).isNotNull();
+        assertThat(store.read(query("a", 1, 41))).isNull();
+        assertThat(store.getStats()).containsEntry("islandCount", 1L);
+
+        //두 기간 사이를 양쪽 anchor 와 함께 받으면 한 기준으로 맞춰서 합친다
+        List<TrendQuery> parts = store.plan(query("a", 1, 41));
+        assertThat(parts).containsExactly(query("a", 4, 38));
+        store.write(parts.get(0), chart("a", 4, concat(repeat(7, 10), repeat(21, 20), repeat(7, 40))));
+
+        assertThat(store.read(query("a", 1, 41)).getRatio(0))
+                .containsExactly(concat(repeat(10, 25), repeat(21, 50), repeat(10, 100)));
+        assertThat(store.getStats()).containsEntry("joinCount", 1L);
+    }
+
+    @Test
+    void appendedSegmentsAreCompactedPerIsland() {
+        TrendStore store = store(2, Long.MAX_VALUE);
+        store.write(query("a", 1, 10), chart("a", 1, repeat(10, 100)));
+        store.write(query("a", 4, 15), chart("a", 4, repeat(12, 100)));
+        assertThat(store.getStats()).containsEntry("compactionCount", 0L);
+
+        store.write(query("a", 13, 20), chart("a", 13, repeat(8, 100)));
+        assertThat(store.getStats()).containsEntry("compactionCount", 1L);
+        assertThat(store.read(query("a", 1, 20)).getRatio(0)).containsExactly(repeat(20, 100));
+
+        //기준이 다른 기간이 따로 있어도 압축 뒤로 덧붙인 세그먼트만 센다
+        store.write(query("a", 32, 41), chart("a", 32, repeat(10, 100)));
+        store.write(query("a", 18, 25), chart("a", 18, repeat(8, 100)));
+        assertThat(store.getStats()).containsEntry("compactionCount", 1L);
+
+        store.write(query("a", 23, 30), chart("a", 23, repeat(8, 100)));
+        assertThat(store.getStats()).containsEntry("compactionCount", 2L);
+        assertThat(store.read(query("a", 1, 30)).getRatio(0)).containsExactly(repeat(30, 100));
+        assertThat(store.read(query("a", 32, 41))).isNotNull();
+    }
+
+    @Test
+    void leastRecentlyUsedFileIsDeletedOverBudget() {
+        //파일 하나가 152 바이트 (헤더 12 + 세그먼트 20 + 10일 * 12)
+        TrendStore store = store(8, 400);
+        store.write(query("a", 1, 10), chart("a", 1, repeat(10, 100)));
+        clock.advance(Duration.ofMinutes(1));
+        store.write(query("b", 1, 10), chart("b", 1, repeat(10, 100)));
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(store.read(query("a", 1, 10))).isNotNull();
+        clock.advance(Duration.ofMinutes(1));
+
+        store.write(query("c", 1, 10), chart("c", 1, repeat(10, 100)));
+
+        assertThat(store.read(query("b", 1, 10))).isNull();
+        assertThat(store.read(query("a", 1, 10))).isNotNull();
+        assertThat(store.read(query("c", 1, 10))).isNotNull();
+        assertThat(store.getStats()).containsEntry("deleteCount", 1L).containsEntry("bytes", 304L);
+    }
+
+    @Test
+    void truncatedLastSegmentIsSkippedAndOverwritten() throws IOException {
+        TrendStore store = store(8, Long.MAX_VALUE);
+        store.write(query("a", 1, 10), chart("a", 1, repeat(10, 100)));
+        store.write(query("a", 4, 15), chart("a", 4, repeat(12, 100)));
+
+        //덧붙이는 도중에 멈춘 것처럼 마지막 세그먼트를 자른다
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 50);
+        }
+
+        TrendStore restarted = store(8, Long.MAX_VALUE);
+        assertThat(restarted.read(query("a", 1, 10)).getRatio(0)).containsExactly(repeat(10, 100));
+        assertThat(restarted.read(query("a", 1, 15))).isNull();
+
+        //다시 받으면 덜 써진 부분을 잘라내고 그 자리에 덧붙인다
+        restarted.write(query("a", 4, 15), chart("a", 4, repeat(12, 100)));
+        assertThat(restarted.read(query("a", 1, 15)).getRatio(0)).containsExactly(repeat(15, 100));
+    }
+
+    private TrendStore store(int compactSegments, long maxBytes) {
+        DatalabProperties properties = new DatalabProperties();
+        properties.getStore().setPath(directory.toString());
+        properties.getStore().setCompactSegments(compactSegments);
+        properties.getStore().setMaxBytes(maxBytes);
+        return new TrendStore(properties, clock);
+    }
+
+    private static TrendQuery query(String keyword, int from, int to) {
+        return TrendQuery.of(List.of(keyword), TrendInput.builder()
+                .startDate(BEFORE_JAN_1.plusDays(from).toString())
+                .endDate(BEFORE_JAN_1.plusDays(to).toString())
+                .timeUnit("date")
+                .build());
+    }
+
+    private static TrendChart chart(String keyword, int from, double... values) {
+        int[] period = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            period[i] = (int) BEFORE_JAN_1.plusDays(from + i).toEpochDay();
+        }
+        return TrendChart.of(period, List.of(keyword), new double[][]{values});
+    }
+
+    private static double[] repeat(int count, double value) {
+        double[] values = new double[count];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    private static double[] concat(double[]... parts) {
+        return Arrays.stream(parts).flatMapToDouble(Arrays::stream).toArray();
+    }
+
+    private static class FakeClock extends Clock {
+        private volatile Instant instant;
+
+        private FakeClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
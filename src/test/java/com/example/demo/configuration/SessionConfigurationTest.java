@@ -0,0 +1,137 @@
+package com.example.demo.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.session.FlushMode;
+import org.springframework.session.SaveMode;
+import org.springframework.session.Session;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 내장 DB(H2)에 Spring Session JDBC 테이블을 만들고 SessionConfiguration 의 변환기로 저장/조회한다.
+ */
+class SessionConfigurationTest {
+
+    private static final String SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("org/springframework/session/jdbc/schema-h2.sql")
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void loginSessionIsStoredCompactlyAndReadOnAnotherNode() {
+        JdbcIndexedSessionRepository node1 = repository();
+        Session session = node1.createSession();
+        session.setAttribute(SECURITY_CONTEXT, securityContext());
+        session.setAttribute("count", 3);
+        node1.save(session);
+
+        //다른 서버는 같은 DB 에서 세션을 읽는다
+        JdbcIndexedSessionRepository node2 = repository();
+        Session loaded = node2.findById(session.getId());
+        SecurityContext context = loaded.getAttribute(SECURITY_CONTEXT);
+
+        assertThat(context.getAuthentication().getName()).isEqualTo("user@test.com");
+        assertThat(AuthorityUtils.authorityListToSet(context.getAuthentication().getAuthorities()))
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        assertThat(((WebAuthenticationDetails) context.getAuthentication().getDetails()).getRemoteAddress())
+                .isEqualTo("10.0.0.1");
+        assertThat((Integer) loaded.getAttribute("count")).isEqualTo(3);
+
+        //아이디, 권한 2개, 접속 주소, 세션 아이디와 길이 정보만 쓴다 (자바 직렬화는 1KB 가 넘는다)
+        assertThat(attributeBytes(SECURITY_CONTEXT)).hasSizeLessThan(100);
+    }
+
+    @Test
+    void onlyChangedAttributesAreWrittenOnSave() {
+        JdbcIndexedSessionRepository repository = repository();
+        Session session = repository.createSession();
+        session.setAttribute("unchanged", "before");
+        session.setAttribute("changed", "before");
+        repository.save(session);
+
+        //다른 값으로 바꿔 둔 뒤, 다시 저장했을 때 덮어쓰는지 본다
+        byte[] marker = SessionAttributeCodec.encode("written by another node");
+        jdbcTemplate.update("update SPRING_SESSION_ATTRIBUTES set ATTRIBUTE_BYTES = ? where ATTRIBUTE_NAME = ?",
+                marker, "unchanged");
+
+        Session loaded = repository.findById(session.getId());
+        loaded.setAttribute("changed", "after");
+
+        //flush-mode=on-save : setAttribute 만으로는 DB 에 쓰지 않는다
+        assertThat(SessionAttributeCodec.decode(attributeBytes("changed"))).isEqualTo("before");
+
+        repository.save(loaded);
+
+        //save-mode=on-set-attribute : 바꾼 속성만 쓰고, 읽기만 한(또는 읽지도 않은) 속성은 다시 쓰지 않는다
+        assertThat(SessionAttributeCodec.decode(attributeBytes("changed"))).isEqualTo("after");
+        assertThat(attributeBytes("unchanged")).isEqualTo(marker);
+    }
+
+    @Test
+    void attributesAreDeserializedOnlyWhenRead() {
+        JdbcIndexedSessionRepository repository = repository();
+        Session session = repository.createSession();
+        session.setAttribute("broken", "value");
+        session.setAttribute("date", LocalDate.of(2024, 3, 1));
+        repository.save(session);
+
+        jdbcTemplate.update("update SPRING_SESSION_ATTRIBUTES set ATTRIBUTE_BYTES = ? where ATTRIBUTE_NAME = ?",
+                new byte[]{99}, "broken");
+
+        //읽지 않는 속성이 깨져 있어도 세션은 읽힌다
+        Session loaded = repository.findById(session.getId());
+        assertThat((LocalDate) loaded.getAttribute("date")).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThatThrownBy(() -> loaded.getAttribute("broken")).isInstanceOf(RuntimeException.class);
+    }
+
+    /**
+     * application.yml 의 spring.session.jdbc 설정과 같게 만든다.
+     */
+    private JdbcIndexedSessionRepository repository() {
+        JdbcIndexedSessionRepository repository = new JdbcIndexedSessionRepository(
+                jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(database)));
+        repository.setConversionService(new SessionConfiguration().springSessionConversionService());
+        repository.setFlushMode(FlushMode.ON_SAVE);
+        repository.setSaveMode(SaveMode.ON_SET_ATTRIBUTE);
+        return repository;
+    }
+
+    private byte[] attributeBytes(String name) {
+        return jdbcTemplate.queryForObject(
+                "select ATTRIBUTE_BYTES from SPRING_SESSION_ATTRIBUTES where ATTRIBUTE_NAME = ?", byte[].class, name);
+    }
+
+    private static SecurityContext securityContext() {
+        User user = new User("user@test.com", "", AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetails("10.0.0.1", "session-id"));
+        return new SecurityContextImpl(authentication);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.member.controller;
+
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.service.MemberService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TrendApiControllerTest {
+
+    private final MemberService memberService = mock(MemberService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-03-01T00:00:00Z"), ZoneId.of("UTC"));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new TrendApiController(memberService, clock, new DatalabProperties()))
+                .build();
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithNotModified() throws Exception {
+        when(memberService.apiResponseAsync(anyList(), any(TrendInput.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(chart("java")));
+
+        MvcResult first = mockMvc.perform(search("/api/trends")).andExpect(request().asyncStarted()).andReturn();
+        String etag = mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //같은 결과면 같은 ETag 이므로 본문 없이 304
+        MvcResult second = mockMvc.perform(search("/api/trends").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(second))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void streamSendsStartThenSeriesThenComplete() throws Exception {
+        when(memberService.apiResponseParts(anyList(), any(TrendInput.class)))
+                .thenReturn(List.of(CompletableFuture.completedFuture(chart("java"))));
+
+        MvcResult result = mockMvc.perform(search("/api/trends/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        String body = result.getResponse().getContentAsString();
+        int start = body.indexOf("event:start");
+        int series = body.indexOf("event:series");
+        int complete = body.indexOf("event:complete");
+        assertThat(start).isNotNegative();
+        assertThat(series).isGreaterThan(start);
+        assertThat(complete).isGreaterThan(series);
+        assertThat(body.substring(complete)).contains("\"keywords\":1,\"failed\":0");
+    }
+
+    private static MockHttpServletRequestBuilder search(String path) {
+        return get(path)
+                .param("keyword", "java")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-03")
+                .param("timeUnit", "date");
+    }
+
+    private static TrendChart chart(String keyword) {
+        int[] period = {19723, 19724, 19725};
+        return TrendChart.of(period, List.of(keyword), new double[][]{{50, 100, 25}});
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.member.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FavoriteUrlTest {
+
+    @Test
+    void sameAddressWrittenDifferentlyHasSameHash() {
+        FavoriteUrl url = FavoriteUrl.of("http://localhost:8080/index_result?query1=java&year=2024");
+
+        assertThat(FavoriteUrl.of("  HTTP://LocalHost:8080/index_result?query1=java&year=2024#chart ").getHash())
+                .isEqualTo(url.getHash());
+        assertThat(FavoriteUrl.of("https://example.com:443").getNormalized()).isEqualTo("https://example.com/");
+
+        //검색 조건(query)이 다르면 다른 즐겨찾기다
+        assertThat(FavoriteUrl.of("http://localhost:8080/index_result?query1=JAVA&year=2024").getHash())
+                .isNotEqualTo(url.getHash());
+    }
+
+    @Test
+    void blankOrTooLongUrlIsRejected() {
+        assertThat(FavoriteUrl.of(null)).isNull();
+        assertThat(FavoriteUrl.of("  ")).isNull();
+        assertThat(FavoriteUrl.of("http://a/" + "x".repeat(FavoriteUrl.MAX_LENGTH))).isNull();
+        assertThat(FavoriteUrl.of("not a uri").getNormalized()).isEqualTo("not a uri");
+    }
+}
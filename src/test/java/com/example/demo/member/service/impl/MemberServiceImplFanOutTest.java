@@ -0,0 +1,377 @@
+package com.example.demo.member.service.impl;
+
+import com.example.demo.admin.mapper.MemberMapper;
+import com.example.demo.components.DatalabCircuitBreaker;
+import com.example.demo.components.DatalabClient;
+import com.example.demo.components.DatalabScheduler;
+import com.example.demo.components.FavoriteCache;
+import com.example.demo.components.MailComponents;
+import com.example.demo.components.MemberTokens;
+import com.example.demo.components.MemberUserCache;
+import com.example.demo.components.TrendCache;
+import com.example.demo.components.TrendSingleFlight;
+import com.example.demo.components.TrendStore;
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.dto.TrendChart;
+import com.example.demo.member.model.TrendInput;
+import com.example.demo.member.repository.FavoriteRepository;
+import com.example.demo.member.repository.MemberRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 검색어 15개(요청 3건)를 스텁 서버에 보낸다. 스텁 서버는 release 를 열 때까지 응답을 붙잡아 둘 수 있으므로,
+ * 소요 시간 대신 서버에 동시에 들어온 요청 수와 결과가 끝나는 순서로 동시 실행 여부를 확인한다.
+ */
+class MemberServiceImplFanOutTest {
+
+    private static final Pattern GROUP_NAME = Pattern.compile("\"groupName\":\"([^\"]*)\"");
+
+    private HttpServer server;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private volatile CountDownLatch arrived = new CountDownLatch(0);
+    //release 와 관계없이 바로 응답할 요청
+    private volatile Predicate<String> immediate = requestBody -> false;
+    //서비스마다 만든 TrendSingleFlight (각자 스레드 풀을 가지므로 끝나면 닫는다)
+    private final List<TrendSingleFlight> singleFlights = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/search", exchange -> {
+            requestCount.incrementAndGet();
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            arrived.countDown();
+            try {
+                if (!immediate.test(requestBody)) {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+
+            List<String> results = new ArrayList<>();
+            Matcher matcher = GROUP_NAME.matcher(requestBody);
+            while (matcher.find()) {
+                results.add("{\"title\":\"" + matcher.group(1) + "\",\"data\":[{\"period\":\"2024-01-01\",\"ratio\":100}]}");
+            }
+            byte[] body = ("{\"results\":[" + String.join(",", results) + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        singleFlights.forEach(TrendSingleFlight::shutdown);
+    }
+
+    @Test
+    void fanOutSendsGroupsConcurrently() throws Exception {
+        //스레드 하나로는 요청이 하나씩 나간다
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            assertAllKeywords(search(single).get(5, TimeUnit.SECONDS));
+        } finally {
+            single.shutdownNow();
+        }
+        assertThat(maxInFlight).hasValue(1);
+
+        //응답을 붙잡아 둔 상태에서 세 요청이 모두 서버에 도착해야 한다
+        hold(3);
+        maxInFlight.set(0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<TrendChart> parallel = search(executor);
+            assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(parallel).isNotDone();
+
+            release.countDown();
+            assertAllKeywords(parallel.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInFlight).hasValue(3);
+    }
+
+    @Test
+    void searchTimeoutReturnsPartialResults() throws Exception {
+        hold(3);
+        DatalabProperties properties = properties();
+        properties.setSearchTimeout(Duration.ofMillis(300));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        MemberServiceImpl memberService = memberService(properties, executor);
+        try {
+            TrendChart result = memberService.apiResponseAsync(keywords(), trendInput()).get(5, TimeUnit.SECONDS);
+
+            assertThat(result.getKeywords()).hasSize(15);
+            assertThat(IntStream.range(0, 15)).allMatch(result::isFailed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void partsCompleteIndependently() throws Exception {
+        //keyword0 이 든 첫 묶음만 바로 응답하고 나머지는 붙잡아 둔다
+        hold(3);
+        immediate = requestBody -> requestBody.contains("\"keyword0\"");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        MemberServiceImpl memberService = memberService(properties(), executor);
+        try {
+            List<CompletableFuture<TrendChart>> parts = memberService.apiResponseParts(keywords(), trendInput());
+            assertThat(parts).hasSize(3);
+
+            //첫 묶음은 나머지를 기다리지 않고 도착한다
+            TrendChart first = parts.get(0).get(5, TimeUnit.SECONDS);
+            assertThat(first.getKeywords()).hasSize(5);
+            assertThat(first.hasFailure()).isFalse();
+            assertThat(parts.get(1)).isNotDone();
+            assertThat(parts.get(2)).isNotDone();
+
+            release.countDown();
+            for (CompletableFuture<TrendChart> part : parts) {
+                assertThat(part.get(5, TimeUnit.SECONDS).hasFailure()).isFalse();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void slowPartCompletesAsFailureAfterSearchTimeout() throws Exception {
+        hold(1);
+        DatalabProperties properties = properties();
+        properties.setSearchTimeout(Duration.ofMillis(300));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        MemberServiceImpl memberService = memberService(properties, executor);
+        try {
+            //응답이 제한 시간보다 늦으면 응답을 기다리지 않고 실패 결과로 끝난다
+            List<CompletableFuture<TrendChart>> slow = memberService.apiResponseParts(List.of("slow0", "slow1"), trendInput());
+            TrendChart timedOut = slow.get(0).get(5, TimeUnit.SECONDS);
+            assertThat(timedOut.isFailed(0)).isTrue();
+            assertThat(release.getCount()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleRefreshDoesNotUseInteractiveReserve() throws Exception {
+        DatalabProperties properties = properties();
+        //담자마자 유효 시간이 지나므로 두 번째 검색은 지난 값을 들고 다시 받는다
+        properties.getCache().setHistoricalTtl(Duration.ZERO);
+        properties.getQuota().setDailyLimit(2);
+        properties.getQuota().setBackgroundReserve(1);
+        DatalabScheduler scheduler = new DatalabScheduler(properties, Clock.systemDefaultZone());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        MemberServiceImpl memberService = memberService(properties, scheduler, executor);
+        try {
+            assertThat(memberService.apiResponseAsync(List.of("stale0"), trendInput()).get(5, TimeUnit.SECONDS).hasFailure()).isFalse();
+
+            //다시 받는 요청은 백그라운드라서 남겨 둔 한도 1건을 쓰지 않고, 지난 값으로 응답한다
+            TrendChart stale = memberService.apiResponseAsync(List.of("stale0"), trendInput()).get(5, TimeUnit.SECONDS);
+            assertThat(stale.isStale()).isTrue();
+            assertThat(scheduler.getStats())
+                    .containsEntry("remaining", 1L)
+                    .containsEntry("quotaExhaustedCount", 1L);
+
+            //남겨 둔 한도는 화면 검색이 쓴다
+            assertThat(memberService.apiResponseAsync(List.of("fresh0"), trendInput()).get(5, TimeUnit.SECONDS).hasFailure()).isFalse();
+            assertThat(scheduler.getStats()).containsEntry("remaining", 0L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 서블릿 스레드 2개로 요청 8건(각각 다른 검색어, 요청 1건씩)을 처리한다.
+     * 동기 처리(결과를 기다린 뒤 반환)는 서블릿 스레드가 응답을 기다리느라 2건씩밖에 못 받고,
+     * 비동기 처리(TrendApiController 가 쓰는 apiResponseAsync)는 요청을 넘기고 바로 다음 요청을 받는다.
+     * <p>
+     * 소요 시간은 재지 않고, 스텁 서버가 응답을 붙잡아 둔 동안 동시에 보낸 요청 수를 센다.
+     * 데이터랩 응답 시간이 일정하면 처리량은 동시에 보낸 요청 수에 비례하므로(처리량 = 동시 요청 수 / 응답 시간),
+     * 8건을 처리하는 데 동기 처리는 응답 4번, 비동기 처리는 응답 1번 만큼의 시간이 걸린다.
+     */
+    @Test
+    void asyncSearchDoesNotHoldServletThreads() throws Exception {
+        int requests = 8;
+
+        //동기 : 서블릿 스레드 2개가 모두 응답을 기다리므로 서버에는 2건만 도착한다
+        hold(2);
+        Load blocking = load(requests, (memberService, keyword) ->
+                CompletableFuture.completedFuture(memberService.apiResponseAsync(List.of(keyword), trendInput()).join()));
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requestCount).hasValue(2);
+        assertThat(blocking.accepted).noneMatch(Future::isDone);
+        blocking.finish();
+        assertThat(maxInFlight).hasValue(2);
+
+        //비동기 : 응답을 붙잡아 둔 상태에서도 8건을 모두 받아서 동시에 보낸다
+        hold(requests);
+        maxInFlight.set(0);
+        Load async = load(requests, (memberService, keyword) ->
+                memberService.apiResponseAsync(List.of(keyword), trendInput()));
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+        for (Future<CompletableFuture<TrendChart>> future : async.accepted) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isNotDone();
+        }
+        async.finish();
+        assertThat(maxInFlight).hasValue(requests);
+    }
+
+    /**
+     * 스텁 서버가 응답을 붙잡아 두게 하고, arrivals 건이 도착하면 arrived 가 열린다.
+     */
+    private void hold(int arrivals) {
+        release.countDown();
+        arrived = new CountDownLatch(arrivals);
+        release = new CountDownLatch(1);
+    }
+
+    private Load load(int requests, BiFunction<MemberServiceImpl, String, CompletableFuture<TrendChart>> handler) {
+        ExecutorService servletThreads = Executors.newFixedThreadPool(2);
+        ExecutorService trendExecutor = Executors.newFixedThreadPool(requests);
+        MemberServiceImpl memberService = memberService(properties(), trendExecutor);
+        String prefix = "load" + System.nanoTime() + "-";
+
+        List<Future<CompletableFuture<TrendChart>>> accepted = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String keyword = prefix + i;
+            accepted.add(servletThreads.submit(() -> handler.apply(memberService, keyword)));
+        }
+        return new Load(accepted, servletThreads, trendExecutor);
+    }
+
+    private CompletableFuture<TrendChart> search(ExecutorService executor) {
+        return memberService(properties(), executor).apiResponseAsync(keywords(), trendInput());
+    }
+
+    private void assertAllKeywords(TrendChart result) {
+        assertThat(result.getKeywords()).isEqualTo(keywords());
+        assertThat(result.hasFailure()).isFalse();
+        assertThat(result.getPeriod()).hasSize(1);
+    }
+
+    private MemberServiceImpl memberService(DatalabProperties properties, ExecutorService executor) {
+        return memberService(properties, new DatalabScheduler(properties, Clock.systemDefaultZone()), executor);
+    }
+
+    private MemberServiceImpl memberService(DatalabProperties properties, DatalabScheduler scheduler, ExecutorService executor) {
+        Clock clock = Clock.systemDefaultZone();
+        TrendSingleFlight singleFlight = new TrendSingleFlight(properties);
+        singleFlights.add(singleFlight);
+        return new MemberServiceImpl(
+                mock(MemberRepository.class),
+                mock(MailComponents.class),
+                mock(MemberMapper.class),
+                new DatalabClient(properties, scheduler, new DatalabCircuitBreaker(properties, clock)),
+                new TrendCache(properties, clock),
+                new TrendStore(properties, clock),
+                clock,
+                properties,
+                executor,
+                singleFlight,
+                new FavoriteCache(clock),
+                mock(FavoriteRepository.class),
+                mock(MemberUserCache.class),
+                mock(PasswordEncoder.class),
+                mock(MemberTokens.class),
+                mock(TransactionTemplate.class));
+    }
+
+    private DatalabProperties properties() {
+        DatalabProperties properties = new DatalabProperties();
+        properties.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/search");
+        properties.setClientId("test-id");
+        properties.setClientSecret("test-secret");
+        properties.getStore().setEnabled(false);
+        return properties;
+    }
+
+    private List<String> keywords() {
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            keywords.add("keyword" + i);
+        }
+        return keywords;
+    }
+
+    private TrendInput trendInput() {
+        return TrendInput.builder()
+                .startDate("2024-01-01")
+                .endDate("2024-01-31")
+                .timeUnit("date")
+                .device("")
+                .gender("")
+                .ages(new String[0])
+                .build();
+    }
+
+    /**
+     * 서블릿 스레드에 넘긴 요청들. finish 는 응답을 풀어 주고 모든 요청이 성공할 때까지 기다린다.
+     */
+    private class Load {
+        private final List<Future<CompletableFuture<TrendChart>>> accepted;
+        private final ExecutorService servletThreads;
+        private final ExecutorService trendExecutor;
+
+        private Load(List<Future<CompletableFuture<TrendChart>>> accepted, ExecutorService servletThreads, ExecutorService trendExecutor) {
+            this.accepted = accepted;
+            this.servletThreads = servletThreads;
+            this.trendExecutor = trendExecutor;
+        }
+
+        private void finish() throws Exception {
+            release.countDown();
+            try {
+                for (Future<CompletableFuture<TrendChart>> future : accepted) {
+                    assertThat(future.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS).hasFailure()).isFalse();
+                }
+            } finally {
+                servletThreads.shutdownNow();
+                trendExecutor.shutdownNow();
+            }
+        }
+    }
+}
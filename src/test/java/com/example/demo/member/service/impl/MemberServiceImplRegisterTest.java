@@ -0,0 +1,70 @@
+package com.example.demo.member.service.impl;
+
+import com.example.demo.admin.mapper.MemberMapper;
+import com.example.demo.components.FavoriteCache;
+import com.example.demo.components.MailComponents;
+import com.example.demo.components.MemberTokens;
+import com.example.demo.components.MemberUserCache;
+import com.example.demo.configuration.DatalabProperties;
+import com.example.demo.member.model.MemberInput;
+import com.example.demo.member.repository.FavoriteRepository;
+import com.example.demo.member.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemberServiceImplRegisterTest {
+
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    @Test
+    void saturatedPasswordEncoderFailsRegistrationInsteadOfThrowing() {
+        when(memberRepository.existsById(anyString())).thenReturn(false);
+        when(passwordEncoder.encode(any()))
+                .thenThrow(new AuthenticationServiceException("요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요."));
+
+        MemberInput parameter = new MemberInput();
+        parameter.setUserId("user@example.com");
+        parameter.setUserName("user");
+        parameter.setPassword("password");
+
+        //컨트롤러는 false 를 받으면 가입 실패 화면을 보여준다
+        assertThat(memberService().register(parameter)).isFalse();
+        verify(transactionTemplate, never()).execute(any());
+        verify(memberRepository, never()).save(any());
+    }
+
+    private MemberServiceImpl memberService() {
+        Clock clock = Clock.systemDefaultZone();
+        return new MemberServiceImpl(
+                memberRepository,
+                mock(MailComponents.class),
+                mock(MemberMapper.class),
+                null,
+                null,
+                null,
+                clock,
+                new DatalabProperties(),
+                null,
+                null,
+                new FavoriteCache(clock),
+                mock(FavoriteRepository.class),
+                mock(MemberUserCache.class),
+                passwordEncoder,
+                mock(MemberTokens.class),
+                transactionTemplate);
+    }
+}